@@ -0,0 +1,71 @@
+package com.bestbid.benchmarks;
+
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.contracts.NftContract;
+import net.corda.core.contracts.Contract;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.TransactionState;
+import net.corda.core.transactions.LedgerTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The contract verification of the transaction of every flow: each contract of the states the transaction spends or
+ * generates, as a node runs them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContractVerificationBenchmark {
+
+    @Param({"ISSUE_NFT", "BATCH_ISSUE_NFT", "ADD_FUNDS", "BULK_ADD_FUNDS", "MERGE_FUNDS", "FIRST_BID",
+            "OVERTAKING_BID", "END_AUCTION", "BATCH_END_AUCTION"})
+    public TransactionFixtures.Flow flow;
+
+    private TransactionFixtures fixtures;
+    private LedgerTransaction tx;
+    private final List<Contract> contracts = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        fixtures = new TransactionFixtures();
+        tx = fixtures.ledger(flow);
+
+        Set<String> contractIds = new LinkedHashSet<>();
+        for (StateAndRef<?> input : tx.getInputs()) {
+            contractIds.add(input.getState().getContract());
+        }
+        for (TransactionState<?> output : tx.getOutputs()) {
+            contractIds.add(output.getContract());
+        }
+        contracts.clear();
+        for (String contractId : contractIds) {
+            contracts.add(contractId.equals(NftContract.ID) ? new NftContract() : new AccountsFundsContract());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public void verify() {
+        for (Contract contract : contracts) {
+            contract.verify(tx);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.bestbid.benchmarks;
+
+import com.bestbid.contracts.AccountsFundsContract.Commands;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.TimeWindow;
+import net.corda.core.transactions.LedgerTransaction;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+/**
+ * The MakeBid checks of AccountsFundsContract and NftContract before they were read in a single pass, kept as they
+ * were as the baseline of MakeBidVerificationBenchmark.
+ */
+final class LegacyMakeBidVerification {
+
+    private LegacyMakeBidVerification() {
+    }
+
+    static void verify(LedgerTransaction tx) {
+        verifyAccountsFunds(tx);
+        verifyNft(tx);
+    }
+
+    static void verifyAccountsFunds(LedgerTransaction tx) {
+        ContractState firstInputState = tx.getInputStates().get(0);
+        ContractState firstOutputState = tx.getOutputStates().get(0);
+        requireThat(req -> {
+            req.using("First input state must be of type NftState",
+                    firstInputState instanceof NftState);
+
+            req.using("first output state must be of type NftState",
+                    firstOutputState instanceof NftState);
+
+            req.using("A bid must consume one and only one NftState",
+                    tx.inputsOfType(NftState.class).size() == 1);
+
+            req.using("A bid must generate one and only one NftState",
+                    tx.outputsOfType(NftState.class).size() == 1);
+            return null;
+        });
+
+        if (tx.getCommand(0).getValue() instanceof Commands.MakeBatchedBid) {
+            verifyBatchedBid(tx);
+        }
+
+        NftState nftInputState = (NftState) firstInputState;
+        NftState nftOutputState = (NftState) firstOutputState;
+        List<AccountsFundsState> accountsInputs = tx.inputsOfType(AccountsFundsState.class);
+        List<AccountsFundsState> accountsOutputs = tx.outputsOfType(AccountsFundsState.class);
+        BigDecimal amountBidded = ((Commands.MakeBid) tx.getCommand(0).component1()).getAmount();
+
+        requireThat(req -> {
+            req.using("A bid can only consume the NftState and AccountsFundsStates",
+                    tx.getInputStates().size() == 1 + accountsInputs.size());
+
+            req.using("A bid can only generate the NftState and AccountsFundsStates",
+                    tx.getOutputStates().size() == 1 + accountsOutputs.size());
+
+            req.using("Outputted NftState must have current bid equal to amount bidded",
+                    nftOutputState.getCurrentBid().compareTo(amountBidded) == 0);
+            return null;
+        });
+
+        if (nftInputState.getBidNumber() == 0) {
+            verifyFirstBidOnNft(nftInputState, nftOutputState, accountsInputs, accountsOutputs, amountBidded);
+        } else {
+            verifyBidsThatArentTheFirstOne(nftInputState, nftOutputState, accountsInputs, accountsOutputs, amountBidded);
+        }
+        verifyBidderFunds(nftOutputState.getCurrentBidder(), accountsInputs, accountsOutputs, amountBidded);
+    }
+
+    private static void verifyBatchedBid(LedgerTransaction tx) {
+        Commands.MakeBatchedBid command = (Commands.MakeBatchedBid) tx.getCommand(0).getValue();
+        requireThat(req -> {
+            req.using("A batched bid must collapse at least one other bid",
+                    command.getCollapsedBids() > 0);
+
+            req.using("The highest rejected bid of a batch can't be higher than the amount bidded",
+                    command.getHighestRejectedBid().compareTo(command.getAmount()) <= 0);
+            return null;
+        });
+    }
+
+    private static void verifyFirstBidOnNft(NftState nftInputState, NftState nftOutputState,
+                                            List<AccountsFundsState> accountsInputs,
+                                            List<AccountsFundsState> accountsOutputs, BigDecimal amountBidded) {
+        String bidder = nftOutputState.getCurrentBidder();
+        requireThat(req -> {
+            req.using("Amount bidded must be equal or higher than minimum bid",
+                    amountBidded.compareTo(nftInputState.getMinimumBid()) >= 0);
+
+            req.using("On first bid only AccountsFundsStates of the bidder can be consumed or generated",
+                    allBelongTo(accountsInputs, bidder) && allBelongTo(accountsOutputs, bidder));
+
+            req.using("Outputted NftState must have bid number equal to 1",
+                    nftOutputState.getBidNumber() == 1);
+            return null;
+        });
+    }
+
+    private static void verifyBidsThatArentTheFirstOne(NftState nftInputState, NftState nftOutputState,
+                                                       List<AccountsFundsState> accountsInputs,
+                                                       List<AccountsFundsState> accountsOutputs,
+                                                       BigDecimal amountBidded) {
+        String bidder = nftOutputState.getCurrentBidder();
+        String oldBidder = nftInputState.getCurrentBidder();
+        List<AccountsFundsState> oldBidderInputs = ofAddress(accountsInputs, oldBidder);
+        List<AccountsFundsState> oldBidderOutputs = ofAddress(accountsOutputs, oldBidder);
+
+        requireThat(req -> {
+            req.using("New bidder cannot be the same as current bidder",
+                    !oldBidder.equals(bidder));
+
+            req.using("Amount bidded must be higher than current bid",
+                    amountBidded.compareTo(nftInputState.getCurrentBid()) > 0);
+
+            req.using("Only AccountsFundsStates of the bidder and of the old bidder can be consumed or generated",
+                    ofAddress(accountsInputs, bidder).size() + oldBidderInputs.size() == accountsInputs.size()
+                            && ofAddress(accountsOutputs, bidder).size() + oldBidderOutputs.size() == accountsOutputs.size());
+
+            req.using("The old bidder must be refunded on one and only one AccountsFundsState",
+                    oldBidderOutputs.size() == 1);
+
+            req.using("Outputted AccountsFundsState from old bidder must have funds equal to his current funds plus the amount that he bidded",
+                    sumOfFunds(oldBidderOutputs).compareTo(sumOfFunds(oldBidderInputs).add(nftInputState.getCurrentBid())) == 0);
+
+            req.using("Outputted AccountsFundsState from old bidder must have type as BID_OVERTAKEN",
+                    oldBidderOutputs.stream().allMatch(state -> state.getType() == AccountsFundsStateTxType.BID_OVERTAKEN));
+
+            req.using("Outputted NftState has wrong bid number",
+                    nftOutputState.getBidNumber() == (nftInputState.getBidNumber() + 1));
+            return null;
+        });
+    }
+
+    private static void verifyBidderFunds(String bidder, List<AccountsFundsState> accountsInputs,
+                                          List<AccountsFundsState> accountsOutputs, BigDecimal amountBidded) {
+        List<AccountsFundsState> bidderInputs = ofAddress(accountsInputs, bidder);
+        List<AccountsFundsState> bidderOutputs = ofAddress(accountsOutputs, bidder);
+        BigDecimal bidderFunds = sumOfFunds(bidderInputs);
+
+        requireThat(req -> {
+            req.using("The bidder must spend at least one AccountsFundsState",
+                    !bidderInputs.isEmpty());
+
+            req.using("Bidder need to have enough funds",
+                    bidderFunds.compareTo(amountBidded) >= 0);
+
+            req.using("The bidder must get one and only one AccountsFundsState back as change",
+                    bidderOutputs.size() == 1);
+
+            req.using("Outputted AccountsFundsState from bidder must have funds equal to old funds minus amount bidded",
+                    sumOfFunds(bidderOutputs).compareTo(bidderFunds.subtract(amountBidded)) == 0);
+
+            req.using("Outputted AccountsFundsState from bidder must have type as NEW_BID",
+                    bidderOutputs.stream().allMatch(state -> state.getType() == AccountsFundsStateTxType.NEW_BID));
+            return null;
+        });
+    }
+
+    static void verifyNft(LedgerTransaction tx) {
+        ContractState firstInputState = tx.getInputStates().get(0);
+        requireThat(req -> {
+            req.using("First input state must be of type NftState.",
+                    firstInputState instanceof NftState);
+
+            req.using("There must be only one NftState outputted.",
+                    tx.outputsOfType(NftState.class).size() == 1);
+
+            NftState inputState = (NftState) tx.getInputStates().get(0);
+
+            req.using("You can't make a bid on a ended auction.",
+                    !inputState.isAuctionEnded());
+
+            NftState outputState = (NftState) tx.getOutputStates().get(0);
+
+            req.using("Auction ended must be false on the output State.",
+                    !outputState.isAuctionEnded());
+
+            req.using("The end time of the auction can't be changed.",
+                    Objects.equals(inputState.getAuctionEnd(), outputState.getAuctionEnd()));
+
+            if (inputState.getAuctionEnd() != null) {
+                TimeWindow timeWindow = tx.getTimeWindow();
+                req.using("A bid on an auction with an end time must have a time window.",
+                        timeWindow != null && timeWindow.getUntilTime() != null);
+
+                req.using("You can't make a bid after the end of the auction.",
+                        !timeWindow.getUntilTime().isAfter(inputState.getAuctionEnd()));
+            }
+            return null;
+        });
+    }
+
+    private static List<AccountsFundsState> ofAddress(List<AccountsFundsState> states, String evmAddress) {
+        return states.stream()
+                .filter(state -> state.getEvmAddress().equals(evmAddress))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean allBelongTo(List<AccountsFundsState> states, String evmAddress) {
+        return states.stream().allMatch(state -> state.getEvmAddress().equals(evmAddress));
+    }
+
+    private static BigDecimal sumOfFunds(List<AccountsFundsState> states) {
+        return states.stream().map(AccountsFundsState::getFunds).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
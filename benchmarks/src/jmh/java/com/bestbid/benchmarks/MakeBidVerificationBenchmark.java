@@ -0,0 +1,73 @@
+package com.bestbid.benchmarks;
+
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.contracts.BidView;
+import com.bestbid.contracts.NftContract;
+import net.corda.core.transactions.LedgerTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The verification time of a bid transaction, as every party runs it on each bid and on every backchain resolution:
+ * both contracts together and each on its own, the BidView they read the transaction into, and the list-copying checks
+ * they replaced (LegacyMakeBidVerification).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MakeBidVerificationBenchmark {
+
+    @Param({"FIRST_BID", "OVERTAKING_BID"})
+    public TransactionFixtures.Flow bid;
+
+    private final AccountsFundsContract accountsFundsContract = new AccountsFundsContract();
+    private final NftContract nftContract = new NftContract();
+    private TransactionFixtures fixtures;
+    private LedgerTransaction tx;
+
+    @Setup
+    public void setup() {
+        fixtures = new TransactionFixtures();
+        tx = fixtures.ledger(bid);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public void singlePass() {
+        accountsFundsContract.verify(tx);
+        nftContract.verify(tx);
+    }
+
+    @Benchmark
+    public void accountsFundsContract() {
+        accountsFundsContract.verify(tx);
+    }
+
+    @Benchmark
+    public void nftContract() {
+        nftContract.verify(tx);
+    }
+
+    @Benchmark
+    public BidView bidView() {
+        return new BidView(tx, (AccountsFundsContract.Commands.MakeBid) tx.getCommands().get(0).getValue());
+    }
+
+    @Benchmark
+    public void legacy() {
+        LegacyMakeBidVerification.verify(tx);
+    }
+}
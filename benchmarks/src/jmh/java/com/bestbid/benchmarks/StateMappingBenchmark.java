@@ -0,0 +1,63 @@
+package com.bestbid.benchmarks;
+
+import com.bestbid.schema.AccountsFundsStateSchemaV1;
+import com.bestbid.schema.AccountsFundsStateSchemaV2;
+import com.bestbid.schema.NftStateSchemaV1;
+import com.bestbid.schema.NftStateSchemaV2;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.NftState;
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mapping of the states to the rows of their custom schemas, which the vault runs for every state it records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StateMappingBenchmark {
+
+    @Param({"1", "2"})
+    public int schemaVersion;
+
+    private TransactionFixtures fixtures;
+    private NftState nft;
+    private AccountsFundsState coin;
+    private MappedSchema nftSchema;
+    private MappedSchema accountsFundsSchema;
+
+    @Setup
+    public void setup() {
+        fixtures = new TransactionFixtures();
+        nft = fixtures.nft();
+        coin = fixtures.coin();
+        nftSchema = schemaVersion == 1 ? new NftStateSchemaV1() : new NftStateSchemaV2();
+        accountsFundsSchema = schemaVersion == 1 ? new AccountsFundsStateSchemaV1() : new AccountsFundsStateSchemaV2();
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public PersistentState nftState() {
+        return nft.generateMappedObject(nftSchema);
+    }
+
+    @Benchmark
+    public PersistentState accountsFundsState() {
+        return coin.generateMappedObject(accountsFundsSchema);
+    }
+}
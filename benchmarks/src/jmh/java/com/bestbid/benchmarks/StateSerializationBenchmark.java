@@ -0,0 +1,71 @@
+package com.bestbid.benchmarks;
+
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.NftState;
+import net.corda.core.serialization.SerializationContext;
+import net.corda.core.serialization.SerializationDefaults;
+import net.corda.core.serialization.SerializationFactory;
+import net.corda.core.serialization.SerializedBytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AMQP serialisation of the states, as they are sent to the counterparty and stored in the transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StateSerializationBenchmark {
+
+    private TransactionFixtures fixtures;
+    private SerializationFactory factory;
+    private SerializationContext context;
+    private NftState nft;
+    private AccountsFundsState coin;
+    private SerializedBytes<NftState> serializedNft;
+    private SerializedBytes<AccountsFundsState> serializedCoin;
+
+    @Setup
+    public void setup() {
+        fixtures = new TransactionFixtures();
+        factory = SerializationFactory.Companion.getDefaultFactory();
+        context = SerializationDefaults.INSTANCE.getP2P_CONTEXT();
+        nft = fixtures.nft();
+        coin = fixtures.coin();
+        serializedNft = factory.serialize(nft, context);
+        serializedCoin = factory.serialize(coin, context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public SerializedBytes<NftState> serializeNftState() {
+        return factory.serialize(nft, context);
+    }
+
+    @Benchmark
+    public NftState deserializeNftState() {
+        return factory.deserialize(serializedNft, NftState.class, context);
+    }
+
+    @Benchmark
+    public SerializedBytes<AccountsFundsState> serializeAccountsFundsState() {
+        return factory.serialize(coin, context);
+    }
+
+    @Benchmark
+    public AccountsFundsState deserializeAccountsFundsState() {
+        return factory.deserialize(serializedCoin, AccountsFundsState.class, context);
+    }
+}
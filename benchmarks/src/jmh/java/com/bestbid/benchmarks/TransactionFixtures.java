@@ -0,0 +1,258 @@
+package com.bestbid.benchmarks;
+
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.contracts.NftContract;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.CommandData;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.TimeWindow;
+import net.corda.core.crypto.Crypto;
+import net.corda.core.crypto.SignatureMetadata;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.LedgerTransaction;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.testing.core.TestIdentity;
+import net.corda.testing.internal.GlobalSerializationEnvironment;
+import net.corda.testing.internal.InternalSerializationTestHelpersKt;
+import net.corda.testing.node.MockServices;
+
+import java.math.BigDecimal;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * The transactions of every flow of the CorDapp, built the way the flows build them on an auction with an end time.
+ * The states they spend are recorded on MockServices, so they resolve into LedgerTransactions like on a node, and the
+ * signed ones carry the signatures of both parties and of the notary.
+ *
+ * Holds the serialization environment of the benchmark, it must be closed in the tear down.
+ */
+public final class TransactionFixtures implements AutoCloseable {
+    private static final TestIdentity SENDER = new TestIdentity(new CordaX500Name("PartyA", "London", "GB"));
+    private static final TestIdentity RECEIVER = new TestIdentity(new CordaX500Name("PartyC", "Sydney", "AU"));
+    private static final TestIdentity NOTARY = new TestIdentity(new CordaX500Name("Notary", "London", "GB"));
+
+    static final String NFT_ID = "1";
+    static final String BIDDER = address(1);
+    static final String OLD_BIDDER = address(2);
+    static final Instant AUCTION_END = Instant.parse("2030-01-01T12:00:00Z");
+
+    /**
+     * States per transaction of the batch flows.
+     */
+    static final int BATCH_SIZE = 100;
+
+    public enum Flow {
+        ISSUE_NFT, BATCH_ISSUE_NFT, ADD_FUNDS, BULK_ADD_FUNDS, MERGE_FUNDS, FIRST_BID, OVERTAKING_BID, END_AUCTION,
+        BATCH_END_AUCTION
+    }
+
+    private final GlobalSerializationEnvironment serialization =
+            InternalSerializationTestHelpersKt.setGlobalSerialization(true);
+    private final MockServices services = new MockServices(
+            Arrays.asList("com.bestbid.contracts", "com.bestbid.states"), SENDER, RECEIVER);
+    private final Party sender = SENDER.getParty();
+    private final Party receiver = RECEIVER.getParty();
+
+    LedgerTransaction ledger(Flow flow) {
+        return builder(flow).toLedgerTransaction(services);
+    }
+
+    SignedTransaction signed(Flow flow) {
+        SignedTransaction stx = services.signInitialTransaction(builder(flow));
+        return stx.withAdditionalSignature(RECEIVER.getKeyPair(), signatureMetadata(RECEIVER.getKeyPair()))
+                .withAdditionalSignature(NOTARY.getKeyPair(), signatureMetadata(NOTARY.getKeyPair()));
+    }
+
+    /**
+     * The auction of NFT_ID with a bid of OLD_BIDDER.
+     */
+    NftState nft() {
+        return auctionWithBid(NFT_ID);
+    }
+
+    /**
+     * The coin OLD_BIDDER got back as change of its bid.
+     */
+    AccountsFundsState coin() {
+        return coin(AccountsFundsStateTxType.NEW_BID, "3", OLD_BIDDER);
+    }
+
+    @Override
+    public void close() {
+        serialization.unset();
+    }
+
+    private TransactionBuilder builder(Flow flow) {
+        switch (flow) {
+            case ISSUE_NFT:
+                return transaction(new NftContract.Commands.Issue(), new ArrayList<>(), openAuction(NFT_ID));
+            case BATCH_ISSUE_NFT:
+                return transaction(new NftContract.Commands.BatchIssue(), new ArrayList<>(),
+                        batchOf(i -> openAuction(String.valueOf(i))));
+            case ADD_FUNDS:
+                return addFunds();
+            case BULK_ADD_FUNDS:
+                return bulkAddFunds();
+            case MERGE_FUNDS:
+                return mergeFunds();
+            case FIRST_BID:
+                return firstBid();
+            case OVERTAKING_BID:
+                return overtakingBid();
+            case END_AUCTION:
+                return endAuctions(new NftContract.Commands.EndAuction(), issue(nft()));
+            case BATCH_END_AUCTION:
+                return endAuctions(new NftContract.Commands.BatchEndAuction(),
+                        issue(batchOf(i -> auctionWithBid(String.valueOf(i)))));
+            default:
+                throw new IllegalArgumentException("No transaction for " + flow);
+        }
+    }
+
+    private TransactionBuilder addFunds() {
+        StateAndRef<ContractState> topUp = issue(coin(AccountsFundsStateTxType.NEW_FUNDS, "6", BIDDER)).get(0);
+        AccountsFundsState input = (AccountsFundsState) topUp.getState().getData();
+        return transaction(new AccountsFundsContract.Commands.AddFunds(BigDecimal.TEN), Arrays.asList(topUp),
+                new AccountsFundsState(AccountsFundsStateTxType.NEW_FUNDS, new BigDecimal("16"), BIDDER, sender,
+                        receiver, input.getLinearId()));
+    }
+
+    private TransactionBuilder bulkAddFunds() {
+        Map<String, BigDecimal> amountsByAddress = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            amountsByAddress.put(address(i), BigDecimal.TEN);
+        }
+        return transaction(new AccountsFundsContract.Commands.BulkAddFunds(amountsByAddress), new ArrayList<>(),
+                batchOf(i -> coin(AccountsFundsStateTxType.NEW_FUNDS, "10", address(i))));
+    }
+
+    private TransactionBuilder mergeFunds() {
+        List<StateAndRef<ContractState>> coins = issue(
+                coin(AccountsFundsStateTxType.NEW_FUNDS, "2", BIDDER),
+                coin(AccountsFundsStateTxType.NEW_BID, "3", BIDDER),
+                coin(AccountsFundsStateTxType.BID_OVERTAKEN, "6", BIDDER));
+        AccountsFundsState largest = (AccountsFundsState) coins.get(2).getState().getData();
+        return transaction(new AccountsFundsContract.Commands.MergeFunds(), coins,
+                new AccountsFundsState(AccountsFundsStateTxType.FUNDS_MERGED, new BigDecimal("11"), BIDDER, sender,
+                        receiver, largest.getLinearId()));
+    }
+
+    /**
+     * The bidder spends two coins and gets its change back.
+     */
+    private TransactionBuilder firstBid() {
+        List<StateAndRef<ContractState>> issued = issue(
+                openAuction(NFT_ID),
+                coin(AccountsFundsStateTxType.NEW_FUNDS, "6", BIDDER),
+                coin(AccountsFundsStateTxType.NEW_FUNDS, "6", BIDDER));
+        NftState nft = (NftState) issued.get(0).getState().getData();
+
+        return bid(issued, new BigDecimal("10"),
+                new NftState(1, false, nft.getMinimumBid(), new BigDecimal("10"), BIDDER, NFT_ID, sender, receiver,
+                        AUCTION_END, nft.getLinearId()),
+                coin(AccountsFundsStateTxType.NEW_BID, "2", BIDDER));
+    }
+
+    /**
+     * The bidder spends two coins and gets its change back, the old bidder is refunded on its coin.
+     */
+    private TransactionBuilder overtakingBid() {
+        List<StateAndRef<ContractState>> issued = issue(
+                nft(),
+                coin(AccountsFundsStateTxType.NEW_FUNDS, "6", BIDDER),
+                coin(AccountsFundsStateTxType.NEW_FUNDS, "6", BIDDER),
+                coin());
+        NftState nft = (NftState) issued.get(0).getState().getData();
+        AccountsFundsState refunded = (AccountsFundsState) issued.get(3).getState().getData();
+
+        return bid(issued, new BigDecimal("10"),
+                new NftState(2, false, nft.getMinimumBid(), new BigDecimal("10"), BIDDER, NFT_ID, sender, receiver,
+                        AUCTION_END, nft.getLinearId()),
+                coin(AccountsFundsStateTxType.NEW_BID, "2", BIDDER),
+                new AccountsFundsState(AccountsFundsStateTxType.BID_OVERTAKEN, new BigDecimal("8"), OLD_BIDDER,
+                        sender, receiver, refunded.getLinearId()));
+    }
+
+    private TransactionBuilder bid(List<StateAndRef<ContractState>> inputs, BigDecimal amount,
+                                   ContractState... outputs) {
+        return transaction(new AccountsFundsContract.Commands.MakeBid(amount), inputs, outputs)
+                .setTimeWindow(TimeWindow.untilOnly(AUCTION_END));
+    }
+
+    private TransactionBuilder endAuctions(CommandData command, List<StateAndRef<ContractState>> auctions) {
+        List<ContractState> ended = new ArrayList<>(auctions.size());
+        for (StateAndRef<ContractState> auction : auctions) {
+            NftState nft = (NftState) auction.getState().getData();
+            ended.add(new NftState(nft.getBidNumber(), true, nft.getMinimumBid(), nft.getCurrentBid(),
+                    nft.getCurrentBidder(), nft.getNftId(), sender, receiver, nft.getAuctionEnd(), nft.getLinearId()));
+        }
+        return transaction(command, auctions, ended.toArray(new ContractState[0]));
+    }
+
+    private TransactionBuilder transaction(CommandData command, List<StateAndRef<ContractState>> inputs,
+                                           ContractState... outputs) {
+        TransactionBuilder builder = new TransactionBuilder(NOTARY.getParty());
+        inputs.forEach(builder::addInputState);
+        for (ContractState output : outputs) {
+            builder.addOutputState(output);
+        }
+        return builder.addCommand(command, sender.getOwningKey(), receiver.getOwningKey());
+    }
+
+    /**
+     * Records the states as the outputs of an issuance, so they can be spent.
+     */
+    private List<StateAndRef<ContractState>> issue(ContractState... states) {
+        TransactionBuilder builder = transaction(new NftContract.Commands.Issue(), new ArrayList<>(), states);
+        SignedTransaction stx = services.signInitialTransaction(builder);
+        services.recordTransactions(stx);
+
+        List<StateAndRef<ContractState>> issued = new ArrayList<>(states.length);
+        for (int i = 0; i < states.length; i++) {
+            issued.add(stx.getTx().outRef(i));
+        }
+        return issued;
+    }
+
+    private ContractState[] batchOf(IntFunction<ContractState> state) {
+        ContractState[] states = new ContractState[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            states[i] = state.apply(i);
+        }
+        return states;
+    }
+
+    private NftState openAuction(String nftId) {
+        return new NftState(0, false, BigDecimal.ONE, BigDecimal.ZERO, "", nftId, sender, receiver, AUCTION_END);
+    }
+
+    private NftState auctionWithBid(String nftId) {
+        return new NftState(1, false, BigDecimal.ONE, new BigDecimal("5"), OLD_BIDDER, nftId, sender, receiver,
+                AUCTION_END);
+    }
+
+    private AccountsFundsState coin(AccountsFundsStateTxType type, String funds, String evmAddress) {
+        return AccountsFundsState.newCoin(type, new BigDecimal(funds), evmAddress, sender, receiver);
+    }
+
+    private SignatureMetadata signatureMetadata(KeyPair keyPair) {
+        return new SignatureMetadata(services.getMyInfo().getPlatformVersion(),
+                Crypto.findSignatureScheme(keyPair.getPublic()).getSchemeNumberID());
+    }
+
+    private static String address(int index) {
+        return String.format("0x%040x", index);
+    }
+}
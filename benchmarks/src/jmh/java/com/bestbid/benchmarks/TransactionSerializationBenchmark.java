@@ -0,0 +1,62 @@
+package com.bestbid.benchmarks;
+
+import net.corda.core.serialization.SerializationContext;
+import net.corda.core.serialization.SerializationDefaults;
+import net.corda.core.serialization.SerializationFactory;
+import net.corda.core.serialization.SerializedBytes;
+import net.corda.core.transactions.SignedTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AMQP serialisation of the signed transaction of every flow, as it is sent to the counterparty, to the notary and
+ * along the backchain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionSerializationBenchmark {
+
+    @Param({"ISSUE_NFT", "BATCH_ISSUE_NFT", "ADD_FUNDS", "BULK_ADD_FUNDS", "MERGE_FUNDS", "FIRST_BID",
+            "OVERTAKING_BID", "END_AUCTION", "BATCH_END_AUCTION"})
+    public TransactionFixtures.Flow flow;
+
+    private TransactionFixtures fixtures;
+    private SerializationFactory factory;
+    private SerializationContext context;
+    private SignedTransaction stx;
+    private SerializedBytes<SignedTransaction> serialized;
+
+    @Setup
+    public void setup() {
+        fixtures = new TransactionFixtures();
+        factory = SerializationFactory.Companion.getDefaultFactory();
+        context = SerializationDefaults.INSTANCE.getP2P_CONTEXT();
+        stx = fixtures.signed(flow);
+        serialized = factory.serialize(stx, context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public SerializedBytes<SignedTransaction> serialize() {
+        return factory.serialize(stx, context);
+    }
+
+    @Benchmark
+    public SignedTransaction deserialize() {
+        return factory.deserialize(serialized, SignedTransaction.class, context);
+    }
+}
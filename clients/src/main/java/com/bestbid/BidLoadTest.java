@@ -0,0 +1,153 @@
+package com.bestbid;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fires bursts of concurrent bids at a running webserver and reports how many of them it held open at once.
+ *
+ * Every concurrent bid goes to its own NFT with its own bidder account, both created before the first burst, so bids
+ * do not conflict with each other and each one really waits for notarisation. While a burst runs the /metrics/flows
+ * endpoint is polled to find the peak of flows in flight.
+ */
+public class BidLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(BidLoadTest.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) throw new IllegalArgumentException("Usage: BidLoadTest <webserver url> <comma separated concurrency levels>");
+        final String baseUrl = args[0];
+        final List<Integer> levels = Arrays.stream(args[1].split(",")).map(Integer::parseInt).collect(Collectors.toList());
+        final int maxLevel = Collections.max(levels);
+        final String run = Long.toString(System.currentTimeMillis(), 36);
+
+        ExecutorService clients = Executors.newFixedThreadPool(maxLevel + 1);
+        try {
+            logger.info("Creating {} NFTs and bidder accounts", maxLevel);
+            List<Future<Integer>> setup = new ArrayList<>();
+            for (int i = 0; i < maxLevel; i++) {
+                final int slot = i;
+                setup.add(clients.submit(() -> post(baseUrl + "/nftState",
+                        "{\"minimumBid\":\"1\",\"nftId\":\"" + nftId(run, slot) + "\"}")));
+                setup.add(clients.submit(() -> post(baseUrl + "/addFundsEventHappend",
+                        "{\"type\":\"NEW_FUNDS\",\"amount\":\"1000000\",\"address\":\"" + bidder(run, slot) + "\"}")));
+            }
+            for (Future<Integer> status : setup) {
+                status.get();
+            }
+
+            for (int round = 0; round < levels.size(); round++) {
+                burst(clients, baseUrl, run, levels.get(round), 10 * (round + 1));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static void burst(ExecutorService clients, String baseUrl, String run, int concurrency, int amount)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        List<Long> latenciesMillis = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> bids = new ArrayList<>();
+
+        for (int i = 0; i < concurrency; i++) {
+            final int slot = i;
+            bids.add(clients.submit(() -> {
+                start.await();
+                long begin = System.nanoTime();
+                int status = post(baseUrl + "/bid", "{\"currentBid\":\"" + amount + "\",\"currentBidder\":\""
+                        + bidder(run, slot) + "\",\"nftId\":\"" + nftId(run, slot) + "\"}");
+                latenciesMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+                statuses.computeIfAbsent(status, key -> new AtomicInteger()).incrementAndGet();
+                return null;
+            }));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger peakInFlight = new AtomicInteger();
+        Future<?> poller = clients.submit(() -> {
+            while (running.get()) {
+                peakInFlight.accumulateAndGet(inFlight(baseUrl), Math::max);
+                Thread.sleep(50);
+            }
+            return null;
+        });
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> bid : bids) {
+            bid.get();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        running.set(false);
+        poller.get();
+
+        List<Long> sorted = new ArrayList<>(latenciesMillis);
+        Collections.sort(sorted);
+        logger.info("concurrency={} statuses={} peakInFlight={} elapsed={}ms p50={}ms p99={}ms", concurrency,
+                statuses, peakInFlight.get(), elapsedMillis, percentile(sorted, 50), percentile(sorted, 99));
+    }
+
+    private static int post(String url, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream body = connection.getOutputStream()) {
+            body.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        connection.disconnect();
+        return status;
+    }
+
+    private static int inFlight(String baseUrl) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/metrics/flows").openConnection();
+        try (InputStream body = connection.getInputStream()) {
+            JsonNode metrics = objectMapper.readTree(body);
+            return metrics.get("inFlight").asInt();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0));
+    }
+
+    private static String nftId(String run, int slot) {
+        return "load-" + run + "-" + slot;
+    }
+
+    private static String bidder(String run, int slot) {
+        return String.format("0x%s%08x", run, slot);
+    }
+}
@@ -0,0 +1,371 @@
+package com.bestbid.webserver;
+
+import com.bestbid.schema.StateQueries;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.EvmAddress;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.DataFeed;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import rx.Subscription;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Read model of the current NftStates and AccountsFundsStates, kept in memory from a vault feed of the node. The
+ * coins of an address are added up, so every address is read as a single AccountsFundsState. Those accounts are kept
+ * sorted by address and by funds as their coins change, so pages and range queries walk them without sorting.
+ *
+ * The GET endpoints are served from here, so read traffic does not reach the node and can be scaled with more
+ * webserver replicas.
+ *
+ * Every few seconds the last state applied is looked up on the node, and the time between the node recording it and
+ * the read model applying it is kept as the lag of the read model. Both times are taken on different machines, so the
+ * lag is only as accurate as their clocks are in sync.
+ */
+@Component
+public class AuctionReadModel {
+    private final static Logger logger = LoggerFactory.getLogger(AuctionReadModel.class);
+    private static final int SNAPSHOT_PAGE_SIZE = 1000;
+    private static final long RESUBSCRIBE_DELAY_SECONDS = 5;
+    private static final long LAG_SAMPLE_INTERVAL_SECONDS = 5;
+
+    private final CordaRPCOps proxy;
+    private final Map<String, StateAndRef<NftState>> nftsById = new ConcurrentHashMap<>();
+    private final Map<String, Map<StateRef, StateAndRef<AccountsFundsState>>> coinsByAddress = new ConcurrentHashMap<>();
+    private final NavigableMap<String, AccountsFundsState> accountsByAddress = new ConcurrentSkipListMap<>();
+    private final NavigableMap<FundsKey, AccountsFundsState> accountsByFunds = new ConcurrentSkipListMap<>();
+    private final Set<StateRef> coinsConsumedWhileLoading = ConcurrentHashMap.newKeySet();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicReference<AppliedState> lastApplied = new AtomicReference<>();
+
+    private volatile Instant lastUpdate = Instant.now();
+    private volatile Duration lag = Duration.ZERO;
+    private volatile boolean feedHealthy = false;
+
+    public AuctionReadModel(NodeRPCConnection rpc) {
+        this.proxy = rpc.proxy;
+        scheduler.scheduleWithFixedDelay(this::sampleLag, LAG_SAMPLE_INTERVAL_SECONDS, LAG_SAMPLE_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    @PostConstruct
+    public synchronized void subscribe() {
+        subscriptions.add(track(NftState.class, new NftTable()));
+        subscriptions.add(track(AccountsFundsState.class, new CoinTable()));
+        coinsConsumedWhileLoading.clear();
+        feedHealthy = true;
+        lastUpdate = Instant.now();
+        logger.info("Read model loaded with {} NFTs and {} accounts", nftsById.size(), coinsByAddress.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        scheduler.shutdownNow();
+        subscriptions.forEach(Subscription::unsubscribe);
+        subscriptions.clear();
+    }
+
+    public Collection<NftState> getNfts() {
+        return data(nftsById.values());
+    }
+
+    public Optional<NftState> getNft(String nftId) {
+        return Optional.ofNullable(nftsById.get(nftId)).map(ref -> ref.getState().getData());
+    }
+
+    /**
+     * Every account, sorted by address. The collection is a live view, it isn't copied.
+     */
+    public Collection<AccountsFundsState> getAccounts() {
+        return accountsByAddress.values();
+    }
+
+    /**
+     * Every account sorted by evmAddress or funds, as a live view.
+     *
+     * @throws IllegalArgumentException when the column is neither evmAddress nor funds.
+     */
+    public Collection<AccountsFundsState> getAccountsSortedBy(String column, Sort.Direction direction) {
+        NavigableMap<?, AccountsFundsState> accounts;
+        if ("evmAddress".equals(column)) {
+            accounts = accountsByAddress;
+        } else if ("funds".equals(column)) {
+            accounts = accountsByFunds;
+        } else {
+            throw new IllegalArgumentException("Accounts can only be sorted by evmAddress or funds");
+        }
+        return direction == Sort.Direction.DESC ? accounts.descendingMap().values() : accounts.values();
+    }
+
+    /**
+     * The accounts holding more than the amount, from the richest one, as a live view.
+     */
+    public Collection<AccountsFundsState> getAccountsAbove(BigDecimal amount) {
+        return accountsByFunds.tailMap(new FundsKey(amount, null), false).descendingMap().values();
+    }
+
+    public int getAccountCount() {
+        return coinsByAddress.size();
+    }
+
+    public Optional<AccountsFundsState> getAccount(String address) {
+        return Optional.ofNullable(accountsByAddress.get(EvmAddress.normalise(address)));
+    }
+
+    public Instant getLastUpdate() {
+        return lastUpdate;
+    }
+
+    /**
+     * Time between the node recording the last sampled state and the read model applying it.
+     */
+    public Duration getLag() {
+        return lag;
+    }
+
+    public boolean isFeedHealthy() {
+        return feedHealthy;
+    }
+
+    /**
+     * Subscribes to the updates first and then loads the snapshot, so no update is lost in between. Snapshot entries
+     * never replace the ones put by an update, as those are newer. Every snapshot page is sorted by state ref, so the
+     * pages neither overlap nor leave states out.
+     */
+    private <T extends ContractState> Subscription track(Class<T> stateClass, StateTable<T> table) {
+        DataFeed<Vault.Page<T>, Vault.Update<T>> feed = proxy.vaultTrackBy(StateQueries.unconsumed(),
+                new PageSpecification(1, SNAPSHOT_PAGE_SIZE), StateQueries.byStateRef(), stateClass);
+
+        Subscription subscription = feed.getUpdates().subscribe(
+                update -> apply(update, table),
+                error -> onFeedError(stateClass, error));
+
+        Vault.Page<T> page = feed.getSnapshot();
+        int pageNumber = 1;
+        while (true) {
+            page.getStates().forEach(table::loaded);
+            if ((long) pageNumber * SNAPSHOT_PAGE_SIZE >= page.getTotalStatesAvailable()) {
+                break;
+            }
+            pageNumber++;
+            page = proxy.vaultQueryBy(StateQueries.unconsumed(), new PageSpecification(pageNumber, SNAPSHOT_PAGE_SIZE),
+                    StateQueries.byStateRef(), stateClass);
+        }
+        return subscription;
+    }
+
+    private <T extends ContractState> void apply(Vault.Update<T> update, StateTable<T> table) {
+        update.getConsumed().forEach(table::consumed);
+        update.getProduced().forEach(table::produced);
+        Instant appliedAt = Instant.now();
+        lastUpdate = appliedAt;
+        update.getProduced().stream().findFirst()
+                .ifPresent(ref -> lastApplied.set(new AppliedState(ref.getRef(), appliedAt)));
+    }
+
+    private void sampleLag() {
+        AppliedState applied = lastApplied.getAndSet(null);
+        if (applied == null) {
+            return;
+        }
+        try {
+            QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL)
+                    .withStateRefs(Collections.singletonList(applied.ref));
+            proxy.vaultQueryByCriteria(criteria, ContractState.class).getStatesMetadata().stream().findFirst()
+                    .ifPresent(metadata -> lag = Duration.between(metadata.getRecordedTime(), applied.appliedAt));
+        } catch (Exception e) {
+            logger.debug("Could not sample the lag of the read model", e);
+        }
+    }
+
+    private void onFeedError(Class<?> stateClass, Throwable error) {
+        logger.error("Vault feed of {} failed, resubscribing in {}s", stateClass.getSimpleName(),
+                RESUBSCRIBE_DELAY_SECONDS, error);
+        feedHealthy = false;
+        scheduler.schedule(this::resubscribe, RESUBSCRIBE_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private synchronized void resubscribe() {
+        if (feedHealthy) {
+            return;
+        }
+        subscriptions.forEach(Subscription::unsubscribe);
+        subscriptions.clear();
+        nftsById.clear();
+        coinsByAddress.clear();
+        accountsByAddress.clear();
+        accountsByFunds.clear();
+        try {
+            subscribe();
+        } catch (Exception e) {
+            onFeedError(ContractState.class, e);
+        }
+    }
+
+    private static <T extends ContractState> Collection<T> data(Collection<StateAndRef<T>> stateAndRefs) {
+        List<T> states = new ArrayList<>(stateAndRefs.size());
+        stateAndRefs.forEach(ref -> states.add(ref.getState().getData()));
+        return states;
+    }
+
+    /**
+     * The coins of an address as one AccountsFundsState: the largest coin holding the funds of all of them.
+     */
+    private static Optional<AccountsFundsState> addUp(Collection<StateAndRef<AccountsFundsState>> coins) {
+        Optional<AccountsFundsState> largest = coins.stream().map(ref -> ref.getState().getData())
+                .max(Comparator.comparing(AccountsFundsState::getFunds));
+        if (!largest.isPresent() || coins.size() == 1) {
+            return largest;
+        }
+        AccountsFundsState coin = largest.get();
+        BigDecimal funds = coins.stream().map(ref -> ref.getState().getData().getFunds())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Optional.of(new AccountsFundsState(coin.getType(), funds, coin.getEvmAddress(), coin.getSender(),
+                coin.getReceiver(), coin.getLinearId()));
+    }
+
+    /**
+     * Orders accounts by funds and then by address. A null address sorts after every address with the same funds, so
+     * it bounds the accounts above an amount.
+     */
+    private static final class FundsKey implements Comparable<FundsKey> {
+        private static final Comparator<FundsKey> ORDER = Comparator.comparing((FundsKey key) -> key.funds)
+                .thenComparing(key -> key.evmAddress, Comparator.nullsLast(Comparator.naturalOrder()));
+
+        private final BigDecimal funds;
+        private final String evmAddress;
+
+        private FundsKey(BigDecimal funds, String evmAddress) {
+            this.funds = funds;
+            this.evmAddress = evmAddress;
+        }
+
+        private static FundsKey of(AccountsFundsState account) {
+            return new FundsKey(account.getFunds(), account.getEvmAddress());
+        }
+
+        @Override
+        public int compareTo(FundsKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static class AppliedState {
+        private final StateRef ref;
+        private final Instant appliedAt;
+
+        private AppliedState(StateRef ref, Instant appliedAt) {
+            this.ref = ref;
+            this.appliedAt = appliedAt;
+        }
+    }
+
+    private interface StateTable<T extends ContractState> {
+        void loaded(StateAndRef<T> ref);
+
+        void consumed(StateAndRef<T> ref);
+
+        void produced(StateAndRef<T> ref);
+    }
+
+    private class NftTable implements StateTable<NftState> {
+        @Override
+        public void loaded(StateAndRef<NftState> ref) {
+            nftsById.putIfAbsent(ref.getState().getData().getNftId(), ref);
+        }
+
+        @Override
+        public void consumed(StateAndRef<NftState> ref) {
+            nftsById.remove(ref.getState().getData().getNftId(), ref);
+        }
+
+        @Override
+        public void produced(StateAndRef<NftState> ref) {
+            nftsById.put(ref.getState().getData().getNftId(), ref);
+        }
+    }
+
+    /**
+     * Coins consumed by an update while the snapshot is being loaded are not added back by the snapshot.
+     *
+     * The coins of an address are changed while holding its entry of coinsByAddress, and its account is added up
+     * again under the same entry, so the sorted accounts follow the coins one address at a time.
+     */
+    private class CoinTable implements StateTable<AccountsFundsState> {
+        @Override
+        public void loaded(StateAndRef<AccountsFundsState> ref) {
+            if (!coinsConsumedWhileLoading.contains(ref.getRef())) {
+                change(ref, coins -> coins.putIfAbsent(ref.getRef(), ref));
+            }
+        }
+
+        @Override
+        public void consumed(StateAndRef<AccountsFundsState> ref) {
+            if (!feedHealthy) {
+                coinsConsumedWhileLoading.add(ref.getRef());
+            }
+            change(ref, coins -> coins.remove(ref.getRef()));
+        }
+
+        @Override
+        public void produced(StateAndRef<AccountsFundsState> ref) {
+            change(ref, coins -> coins.put(ref.getRef(), ref));
+        }
+
+        private void change(StateAndRef<AccountsFundsState> ref,
+                            Consumer<Map<StateRef, StateAndRef<AccountsFundsState>>> change) {
+            coinsByAddress.compute(ref.getState().getData().getEvmAddress(), (address, coins) -> {
+                Map<StateRef, StateAndRef<AccountsFundsState>> changed = coins == null ? new HashMap<>() : coins;
+                change.accept(changed);
+                reindex(address, changed.values());
+                return changed.isEmpty() ? null : changed;
+            });
+        }
+
+        private void reindex(String address, Collection<StateAndRef<AccountsFundsState>> coins) {
+            AccountsFundsState previous = accountsByAddress.get(address);
+            if (previous != null) {
+                accountsByFunds.remove(FundsKey.of(previous));
+            }
+            Optional<AccountsFundsState> account = addUp(coins);
+            if (account.isPresent()) {
+                accountsByFunds.put(FundsKey.of(account.get()), account.get());
+                accountsByAddress.put(address, account.get());
+            } else {
+                accountsByAddress.remove(address);
+            }
+        }
+    }
+}
@@ -1,33 +1,40 @@
 package com.bestbid.webserver;
 
 import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.AccountsFunds.BulkAddFundsFlow;
+import com.bestbid.flows.BatchEndAuctionFlow;
 import com.bestbid.flows.EndAuctionFlow;
-import com.bestbid.flows.MakeBidFlow;
+import com.bestbid.flows.GetBidMetricsFlow;
+import com.bestbid.flows.Nft.BatchIssueNftFlow;
 import com.bestbid.flows.Nft.IssueNftFlow;
-import com.bestbid.schema.NftStateSchemaV1;
+import com.bestbid.flows.SequencedMakeBidFlow;
+import com.bestbid.schema.StateQueries;
 import com.bestbid.states.AccountsFundsState;
 import com.bestbid.states.AccountsFundsStateTxType;
 import com.bestbid.states.NftState;
 import com.bestbid.webserver.dto.AccountsFundsDTO;
 import com.bestbid.webserver.dto.NftDTO;
+import com.bestbid.webserver.dto.PageDTO;
 import net.corda.core.contracts.StateAndRef;
-import net.corda.core.identity.CordaX500Name;
 import net.corda.core.identity.Party;
 import net.corda.core.messaging.CordaRPCOps;
 import net.corda.core.node.services.Vault;
-import net.corda.core.node.services.vault.Builder;
-import net.corda.core.node.services.vault.CriteriaExpression;
-import net.corda.core.node.services.vault.QueryCriteria;
-import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.node.services.vault.Sort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.lang.reflect.Field;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -41,14 +48,20 @@ import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
 @RequestMapping("/")
 public class Controller {
 
-    @Value("${parties.partyC.name}")
-    private String partyCName;
-
     private final CordaRPCOps proxy;
+    private final VaultPageStreamer vaultPageStreamer;
+    private final AuctionReadModel auctionReadModel;
+    private final FlowSubmitter flowSubmitter;
+    private final NetworkContext networkContext;
     private final static Logger logger = LoggerFactory.getLogger(Controller.class);
 
-    public Controller(NodeRPCConnection rpc) {
+    public Controller(NodeRPCConnection rpc, VaultPageStreamer vaultPageStreamer, AuctionReadModel auctionReadModel,
+                      FlowSubmitter flowSubmitter, NetworkContext networkContext) {
         this.proxy = rpc.proxy;
+        this.vaultPageStreamer = vaultPageStreamer;
+        this.auctionReadModel = auctionReadModel;
+        this.flowSubmitter = flowSubmitter;
+        this.networkContext = networkContext;
     }
 
     @GetMapping(value = "/health", produces = "text/plain")
@@ -56,186 +69,360 @@ public class Controller {
         return "There is a endpoint here.";
     }
 
+    @GetMapping(value = "/metrics/readModel", produces = APPLICATION_JSON_VALUE)
+    public Map<String, Object> getReadModelMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("feedHealthy", auctionReadModel.isFeedHealthy());
+        metrics.put("lastUpdate", auctionReadModel.getLastUpdate().toString());
+        metrics.put("lagMillis", auctionReadModel.getLag().toMillis());
+        return metrics;
+    }
+
+    @GetMapping(value = "/metrics/flows", produces = APPLICATION_JSON_VALUE)
+    public Map<String, Object> getFlowMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("inFlight", flowSubmitter.getInFlight());
+        metrics.put("maxInFlight", flowSubmitter.getMaxInFlight());
+        return metrics;
+    }
+
+    @GetMapping(value = "/metrics/bids", produces = APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<String>> getBidMetrics() {
+        return flowSubmitter.query(GetBidMetricsFlow.class);
+    }
+
     @GetMapping(value = "/funds", produces = APPLICATION_JSON_VALUE)
     public List<AccountsFundsDTO> getAccountsFunds() {
-        List<StateAndRef<AccountsFundsState>> stateAndRefAccountsFundsState = proxy.vaultQuery(AccountsFundsState.class).getStates();
-
-        return stateAndRefAccountsFundsState.stream().map(ref -> new AccountsFundsDTO(
-                ref.getState().component1().getType(),
-                ref.getState().component1().getFunds().toString(),
-                ref.getState().component1().getEvmAddress())
-        ).collect(Collectors.toList());
+        return auctionReadModel.getAccounts().stream()
+                .map(Controller::toAccountsFundsDTO)
+                .collect(Collectors.toList());
     }
 
     @GetMapping(value = "/funds/{address}", produces = APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getAccountsFund(@PathVariable String address) {
-        List<StateAndRef<AccountsFundsState>> stateAndRefAccountsFundsState = proxy.vaultQuery(AccountsFundsState.class).getStates();
-
-        List<AccountsFundsDTO> accountsFundsList = stateAndRefAccountsFundsState.stream().map(ref -> new AccountsFundsDTO(
-                ref.getState().component1().getType(),
-                ref.getState().component1().getFunds().toString(),
-                ref.getState().component1().getEvmAddress())
-        ).collect(Collectors.toList());
+        Optional<AccountsFundsState> accountsFundsState = auctionReadModel.getAccount(address);
 
-        Optional<AccountsFundsDTO> optAddFundsDTO = accountsFundsList.stream()
-                .filter(af -> af.getAddress().equalsIgnoreCase(address)).findFirst();
-        if(optAddFundsDTO.isPresent()) {
-            return new ResponseEntity<>(optAddFundsDTO.get(), HttpStatus.OK);
+        if (!accountsFundsState.isPresent()) {
+            return new ResponseEntity<>("Address not registered", HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>("Address not registered", HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(toAccountsFundsDTO(accountsFundsState.get()), HttpStatus.OK);
     }
 
-    @PostMapping(value = "/addFundsEventHappend", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> issueAddFundsEvent(@RequestBody AccountsFundsDTO accountsFundsDTO) throws IllegalArgumentException {
-
-        CordaX500Name partyX500Name = CordaX500Name.parse(partyCName);
-        Party otherParty = proxy.wellKnownPartyFromX500Name(partyX500Name);
-
+    @GetMapping(value = "/funds/page", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAccountsFundsPage(@RequestParam(defaultValue = "1") int page,
+                                                  @RequestParam(defaultValue = "100") int size,
+                                                  @RequestParam(defaultValue = "evmAddress") String sort,
+                                                  @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
         try {
-            SignedTransaction result = proxy.startTrackedFlowDynamic(
-                    AddFundsFlow.Initiator.class,
-                    AccountsFundsStateTxType.NEW_FUNDS,
-                    accountsFundsDTO.getAmount(),
-                    accountsFundsDTO.getAddress(),
-                    otherParty
-            )
-                    .getReturnValue().get();
-
+            checkPage(page, size);
+            List<AccountsFundsDTO> items = auctionReadModel.getAccountsSortedBy(sort, direction).stream()
+                    .skip((long) (page - 1) * size)
+                    .limit(size)
+                    .map(Controller::toAccountsFundsDTO)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(new PageDTO<>(page, size, auctionReadModel.getAccountCount(), items));
+        } catch (IllegalArgumentException e) {
             return ResponseEntity
-                    .status(HttpStatus.CREATED)
-                    .body("Transaction id " + result.getId() + " committed to ledger.\n " + result.getTx().getOutput(0));
-        } catch (Exception e) {
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/funds/stream", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> streamAccountsFunds(@RequestParam(defaultValue = "500") int size,
+                                                 @RequestParam(defaultValue = "evmAddress") String sort,
+                                                 @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        try {
+            checkPage(1, size);
+            StreamingResponseBody body = vaultPageStreamer.stream(auctionReadModel.getAccountsSortedBy(sort, direction),
+                    size, Controller::toAccountsFundsDTO);
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(e.getMessage());
         }
     }
 
-    @GetMapping(value = "/nftState/{nftId}", produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getNftStatesByNftId(@PathVariable String nftId) {
-        QueryCriteria generalCriteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL);
-        Field nftIdField;
+    @GetMapping(value = "/funds/above/{amount}", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAccountsFundsAbove(@PathVariable String amount,
+                                                   @RequestParam(defaultValue = "100") int limit) {
+        BigDecimal above;
         try {
-            nftIdField = NftStateSchemaV1.PersistentNftState.class.getDeclaredField("nftId");
-        } catch (NoSuchFieldException e) {
+            above = parseRangeQuery(amount, limit);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .status(HttpStatus.BAD_REQUEST)
                     .body(e.getMessage());
         }
-        CriteriaExpression criteria = Builder.equal(nftIdField, nftId);
-        QueryCriteria nftQuery = new QueryCriteria.VaultCustomQueryCriteria(criteria);
-        generalCriteria = generalCriteria.and(nftQuery);
 
-        List<StateAndRef<NftState>> nftStateAndRefs = proxy
-                .vaultQueryByCriteria(generalCriteria, NftState.class).getStates();
+        return ResponseEntity.ok(auctionReadModel.getAccountsAbove(above).stream()
+                .limit(limit)
+                .map(Controller::toAccountsFundsDTO)
+                .collect(Collectors.toList()));
+    }
 
-        if (nftStateAndRefs.size() == 0) {
+    @PostMapping(value = "/addFundsEventHappend", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
+    public DeferredResult<ResponseEntity<String>> issueAddFundsEvent(@RequestBody AccountsFundsDTO accountsFundsDTO) throws IllegalArgumentException {
+
+        Party otherParty = networkContext.getCounterparty();
+
+        return flowSubmitter.submit(
+                AddFundsFlow.Initiator.class,
+                AccountsFundsStateTxType.NEW_FUNDS,
+                accountsFundsDTO.getAmount(),
+                accountsFundsDTO.getAddress(),
+                otherParty
+        );
+    }
+
+    /**
+     * Credits every deposit of the list in a single transaction, deposits to the same address are added up.
+     */
+    @PostMapping(value = "/addFundsEventsHappend", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
+    public DeferredResult<ResponseEntity<String>> issueAddFundsEvents(@RequestBody List<AccountsFundsDTO> accountsFundsDTOs) {
+        Map<String, String> fundsByAddress = new LinkedHashMap<>();
+        try {
+            accountsFundsDTOs.forEach(dto -> fundsByAddress.merge(dto.getAddress(), dto.getAmount(),
+                    (funds, moreFunds) -> new BigDecimal(funds).add(new BigDecimal(moreFunds)).toString()));
+        } catch (NumberFormatException e) {
+            DeferredResult<ResponseEntity<String>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid amount: " + e.getMessage()));
+            return result;
+        }
+
+        Party otherParty = networkContext.getCounterparty();
+
+        return flowSubmitter.submit(BulkAddFundsFlow.Initiator.class, fundsByAddress, otherParty);
+    }
+
+    @GetMapping(value = "/nftState/{nftId}", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getNftStatesByNftId(@PathVariable String nftId) {
+        Optional<NftState> nftState = auctionReadModel.getNft(nftId);
+
+        if (!nftState.isPresent()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
                     .body("There is no NFT registered with this ID");
         }
 
-        NftState nftState = nftStateAndRefs.get(0).component1().component1();
-        NftDTO nftDTO = new NftDTO(nftState.getBidNumber(), nftState.isAuctionEnded(), nftState.getMinimumBid().toString(),
-                nftState.getCurrentBid().toString(), nftState.getCurrentBidder(), nftState.getNftId());
-
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(nftDTO);
+                .body(toNftDTO(nftState.get()));
     }
 
 
     @GetMapping(value = "/nftState", produces = APPLICATION_JSON_VALUE)
     public List<NftDTO> getNftStates() {
-        List<StateAndRef<NftState>> stateAndRefAccountsFundsState = proxy.vaultQuery(NftState.class).getStates();
-
-        return stateAndRefAccountsFundsState.stream()
-                .map(ref -> {
-                    NftState nftState = ref.getState().getData();
-                    return new NftDTO(
-                        nftState.getBidNumber(),
-                        nftState.isAuctionEnded(),
-                        nftState.getMinimumBid().toString(),
-                        nftState.getCurrentBid().toString(),
-                        nftState.getCurrentBidder(),
-                        nftState.getNftId()
-                    );
-                })
+        return auctionReadModel.getNfts().stream()
+                .map(Controller::toNftDTO)
                 .collect(Collectors.toList());
     }
 
-    @PostMapping(value = "/nftState", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> issueNftState(@RequestBody NftDTO nftDTO) throws IllegalArgumentException {
-
-        CordaX500Name partyX500Name = CordaX500Name.parse(partyCName);
-        Party otherParty = proxy.wellKnownPartyFromX500Name(partyX500Name);
-
+    @GetMapping(value = "/nftStates/page", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getNftStatesPage(@RequestParam(defaultValue = "1") int page,
+                                              @RequestParam(defaultValue = "100") int size,
+                                              @RequestParam(defaultValue = "nftId") String sort,
+                                              @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
         try {
-            SignedTransaction result = proxy.startTrackedFlowDynamic(
-                    IssueNftFlow.Initiator.class,
-                    nftDTO.getMinimumBid(),
-                    nftDTO.getNftId(),
-                    otherParty
-            )
-                    .getReturnValue().get();
+            checkPage(page, size);
+            Vault.Page<NftState> nftPage = vaultPageStreamer.page(NftState.class, StateQueries.unconsumed(),
+                    StateQueries.nftsSortedBy(sort, direction), page, size);
+
+            List<NftDTO> items = nftPage.getStates().stream()
+                    .map(ref -> toNftDTO(ref.getState().getData()))
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(new PageDTO<>(page, size, nftPage.getTotalStatesAvailable(), items));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
 
+    @GetMapping(value = "/nftStates/stream", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> streamNftStates(@RequestParam(defaultValue = "500") int size,
+                                             @RequestParam(defaultValue = "nftId") String sort,
+                                             @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        try {
+            checkPage(1, size);
+            StreamingResponseBody body = vaultPageStreamer.stream(NftState.class, StateQueries.unconsumed(),
+                    StateQueries.nftsSortedBy(sort, direction), size, Controller::toNftDTO);
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity
-                    .status(HttpStatus.CREATED)
-                    .body("Transaction id " + result.getId() + " committed to ledger.\n " + result.getTx().getOutput(0));
-        } catch (Exception e) {
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/nftStates/highestBids", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getHighestBids(@RequestParam(defaultValue = "10") int limit,
+                                            @RequestParam(defaultValue = "0") String above) {
+        BigDecimal amount;
+        try {
+            amount = parseRangeQuery(above, limit);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(e.getMessage());
         }
+
+        List<StateAndRef<NftState>> nftStateAndRefs = proxy.vaultQueryBy(
+                StateQueries.nftsWithCurrentBidAbove(amount),
+                StateQueries.first(limit),
+                StateQueries.byCurrentBidDescending(),
+                NftState.class
+        ).getStates();
+
+        return ResponseEntity.ok(nftStateAndRefs.stream()
+                .map(ref -> toNftDTO(ref.getState().getData()))
+                .collect(Collectors.toList()));
     }
 
-    @PostMapping(value = "/bid", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> makeBid(@RequestBody NftDTO nftDTO) throws IllegalArgumentException {
+    /**
+     * Issues a NFT, when auctionEnd is set the nodes end its auction at that time.
+     */
+    @PostMapping(value = "/nftState", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
+    public DeferredResult<ResponseEntity<String>> issueNftState(@RequestBody NftDTO nftDTO) throws IllegalArgumentException {
 
-        CordaX500Name partyX500Name = CordaX500Name.parse(partyCName);
-        Party otherParty = proxy.wellKnownPartyFromX500Name(partyX500Name);
+        Party otherParty = networkContext.getCounterparty();
 
-        try {
-            SignedTransaction result = proxy.startTrackedFlowDynamic(
-                    MakeBidFlow.Initiator.class,
-                    nftDTO.getCurrentBid(),
-                    nftDTO.getCurrentBidder(),
+        if (nftDTO.getAuctionEnd() == null) {
+            return flowSubmitter.submit(
+                    IssueNftFlow.Initiator.class,
+                    nftDTO.getMinimumBid(),
                     nftDTO.getNftId(),
                     otherParty
-            )
-                    .getReturnValue().get();
+            );
+        }
 
-            return ResponseEntity
-                    .status(HttpStatus.CREATED)
-                    .body("Transaction id " + result.getId() + " committed to ledger.\n " + result.getTx().getOutput(0));
-        } catch (Exception e) {
-            return ResponseEntity
+        Instant auctionEnd;
+        try {
+            auctionEnd = Instant.parse(nftDTO.getAuctionEnd());
+        } catch (DateTimeParseException e) {
+            DeferredResult<ResponseEntity<String>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
-                    .body(e.getMessage());
+                    .body("Auction end " + nftDTO.getAuctionEnd() + " is not an ISO-8601 instant"));
+            return result;
         }
+        return flowSubmitter.submit(
+                IssueNftFlow.Initiator.class,
+                nftDTO.getMinimumBid(),
+                nftDTO.getNftId(),
+                otherParty,
+                auctionEnd
+        );
+    }
+
+    /**
+     * Issues every NFT of the list in one transaction per notary, nftIds must not repeat.
+     */
+    @PostMapping(value = "/nftStates", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
+    public DeferredResult<ResponseEntity<String>> issueNftStates(@RequestBody List<NftDTO> nftDTOs) {
+        Map<String, String> minimumBidsByNftId = new LinkedHashMap<>();
+        for (NftDTO nftDTO : nftDTOs) {
+            if (minimumBidsByNftId.put(nftDTO.getNftId(), nftDTO.getMinimumBid()) != null) {
+                DeferredResult<ResponseEntity<String>> result = new DeferredResult<>();
+                result.setResult(ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body("NFT id " + nftDTO.getNftId() + " appears more than once"));
+                return result;
+            }
+        }
+
+        Party otherParty = networkContext.getCounterparty();
+
+        return flowSubmitter.submitAll(BatchIssueNftFlow.Initiator.class, minimumBidsByNftId, otherParty);
+    }
+
+    @PostMapping(value = "/bid", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
+    public DeferredResult<ResponseEntity<String>> makeBid(@RequestBody NftDTO nftDTO) throws IllegalArgumentException {
+
+        Party otherParty = networkContext.getCounterparty();
+
+        return flowSubmitter.submit(
+                SequencedMakeBidFlow.class,
+                nftDTO.getCurrentBid(),
+                nftDTO.getCurrentBidder(),
+                nftDTO.getNftId(),
+                otherParty
+        );
     }
 
     @PostMapping(value = "/endAuction", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> endAuction(@RequestBody NftDTO nftDTO) throws IllegalArgumentException {
+    public DeferredResult<ResponseEntity<String>> endAuction(@RequestBody NftDTO nftDTO) throws IllegalArgumentException {
 
-        CordaX500Name partyX500Name = CordaX500Name.parse(partyCName);
-        Party otherParty = proxy.wellKnownPartyFromX500Name(partyX500Name);
+        Party otherParty = networkContext.getCounterparty();
 
-        try {
-            SignedTransaction result = proxy.startTrackedFlowDynamic(
-                    EndAuctionFlow.Initiator.class,
-                    nftDTO.getNftId(),
-                    otherParty
-            )
-                    .getReturnValue().get();
+        return flowSubmitter.submit(
+                EndAuctionFlow.Initiator.class,
+                nftDTO.getNftId(),
+                otherParty
+        );
+    }
 
-            return ResponseEntity
-                    .status(HttpStatus.CREATED)
-                    .body("Transaction id " + result.getId() + " committed to ledger.\n " + result.getTx().getOutput(0));
-        } catch (Exception e) {
-            return ResponseEntity
-                    .status(HttpStatus.BAD_REQUEST)
-                    .body(e.getMessage());
+    /**
+     * Ends the auction of every NFT of the list in a single transaction.
+     */
+    @PostMapping(value = "/endAuctions", consumes = APPLICATION_JSON_VALUE, produces = TEXT_PLAIN_VALUE)
+    public DeferredResult<ResponseEntity<String>> endAuctions(@RequestBody List<NftDTO> nftDTOs) {
+        List<String> nftIds = nftDTOs.stream()
+                .map(NftDTO::getNftId)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        Party otherParty = networkContext.getCounterparty();
+
+        return flowSubmitter.submit(BatchEndAuctionFlow.Initiator.class, nftIds, otherParty);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the page number or the page size isn't positive.
+     */
+    private static void checkPage(int page, int size) {
+        if (page < 1) {
+            throw new IllegalArgumentException("Page numbers start at 1");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+    }
+
+    /**
+     * @return the amount of a range query.
+     * @throws IllegalArgumentException when the amount isn't a number or the limit isn't positive.
+     */
+    private static BigDecimal parseRangeQuery(String amount, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
         }
+        try {
+            return new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + amount);
+        }
+    }
+
+    private static NftDTO toNftDTO(NftState nftState) {
+        return new NftDTO(
+                nftState.getBidNumber(),
+                nftState.isAuctionEnded(),
+                nftState.getMinimumBid().toString(),
+                nftState.getCurrentBid().toString(),
+                nftState.getCurrentBidder(),
+                nftState.getNftId(),
+                nftState.getAuctionEnd() == null ? null : nftState.getAuctionEnd().toString()
+        );
+    }
+
+    private static AccountsFundsDTO toAccountsFundsDTO(AccountsFundsState accountsFundsState) {
+        return new AccountsFundsDTO(
+                accountsFundsState.getType(),
+                accountsFundsState.getFunds().toString(),
+                accountsFundsState.getEvmAddress()
+        );
     }
 }
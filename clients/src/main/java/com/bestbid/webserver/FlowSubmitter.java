@@ -0,0 +1,149 @@
+package com.bestbid.webserver;
+
+import com.bestbid.services.BidRejectedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.FlowHandle;
+import net.corda.core.transactions.SignedTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Starts flows on the node without holding a servlet thread while they run.
+ *
+ * The returned DeferredResult is completed from the callback of the flow's return value. At most
+ * config.flows.maxInFlight flows are started at once, requests over it are answered with 429 right away.
+ */
+@Component
+public class FlowSubmitter {
+    private final static Logger logger = LoggerFactory.getLogger(FlowSubmitter.class);
+
+    @Value("${config.flows.maxInFlight:200}")
+    private int maxInFlight;
+    @Value("${config.flows.timeoutSeconds:120}")
+    private long timeoutSeconds;
+
+    private final CordaRPCOps proxy;
+    private final ObjectMapper objectMapper;
+    private Semaphore inFlight;
+
+    public FlowSubmitter(NodeRPCConnection rpc, ObjectMapper objectMapper) {
+        this.proxy = rpc.proxy;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void initialiseInFlightLimit() {
+        inFlight = new Semaphore(maxInFlight);
+    }
+
+    public DeferredResult<ResponseEntity<String>> submit(Class<? extends FlowLogic<SignedTransaction>> flowClass,
+                                                         Object... args) {
+        return start(flowClass, args, stx -> ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body("Transaction id " + stx.getId() + " committed to ledger.\n " + stx.getTx().getOutput(0)));
+    }
+
+    /**
+     * Like submit, for flows committing several transactions.
+     */
+    public DeferredResult<ResponseEntity<String>> submitAll(
+            Class<? extends FlowLogic<List<SignedTransaction>>> flowClass, Object... args) {
+        return start(flowClass, args, transactions -> ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body("Transaction ids " + transactions.stream().map(stx -> stx.getId().toString())
+                        .collect(Collectors.joining(", ")) + " committed to ledger."));
+    }
+
+    /**
+     * Like submit, for flows reading from the node. Their return value is answered as JSON.
+     */
+    public <T> DeferredResult<ResponseEntity<String>> query(Class<? extends FlowLogic<T>> flowClass, Object... args) {
+        return start(flowClass, args, value -> ResponseEntity.ok(objectMapper.writeValueAsString(value)));
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private <T> DeferredResult<ResponseEntity<String>> start(Class<? extends FlowLogic<T>> flowClass, Object[] args,
+                                                             Completion<T> completed) {
+        DeferredResult<ResponseEntity<String>> result = new DeferredResult<>(timeoutSeconds * 1000, ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("The flow did not finish in " + timeoutSeconds + "s, it may still complete on the node"));
+
+        if (!inFlight.tryAcquire()) {
+            result.setResult(ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body("Too many flows in flight, try again later"));
+            return result;
+        }
+
+        FlowHandle<T> handle;
+        try {
+            handle = proxy.startFlowDynamic(flowClass, args);
+        } catch (Exception e) {
+            inFlight.release();
+            result.setResult(ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage()));
+            return result;
+        }
+
+        handle.getReturnValue().then(future -> {
+            inFlight.release();
+            try {
+                result.setResult(completed.apply(future.get()));
+            } catch (Exception e) {
+                result.setResult(failure(e));
+            } finally {
+                closeQuietly(handle);
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Bids rejected before reaching the ledger are answered with 422 and their reason, e.g.
+     * "NOT_ABOVE_CURRENT_BID: Amount bidded must be higher than current bid".
+     */
+    private static ResponseEntity<String> failure(Exception error) {
+        if (error.getCause() instanceof BidRejectedException) {
+            BidRejectedException rejection = (BidRejectedException) error.getCause();
+            return ResponseEntity
+                    .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(rejection.getReason() + ": " + rejection.getMessage());
+        }
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(error.getMessage());
+    }
+
+    private interface Completion<T> {
+        ResponseEntity<String> apply(T value) throws Exception;
+    }
+
+    private static void closeQuietly(FlowHandle<?> handle) {
+        try {
+            handle.close();
+        } catch (Exception e) {
+            logger.warn("Could not close the handle of flow {}", handle.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bestbid.webserver;
+
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.DataFeed;
+import net.corda.core.node.NodeInfo;
+import net.corda.core.node.services.NetworkMapCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rx.Subscription;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+
+/**
+ * The counterparty the API starts flows with (parties.partyC.name), resolved once from the network map feed of the
+ * node and kept up to date from its changes, so write requests don't need an RPC round trip to look it up.
+ */
+@Component
+public class NetworkContext {
+    private final static Logger logger = LoggerFactory.getLogger(NetworkContext.class);
+
+    @Value("${parties.partyC.name}")
+    private String counterpartyName;
+
+    private final CordaRPCOps proxy;
+    private CordaX500Name counterpartyX500Name;
+    private Subscription subscription;
+    private volatile Party counterparty;
+
+    public NetworkContext(NodeRPCConnection rpc) {
+        this.proxy = rpc.proxy;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        counterpartyX500Name = CordaX500Name.parse(counterpartyName);
+        DataFeed<List<NodeInfo>, NetworkMapCache.MapChange> feed = proxy.networkMapFeed();
+        feed.getSnapshot().forEach(this::onNodeAdded);
+        subscription = feed.getUpdates().subscribe(this::onChange,
+                error -> logger.warn("Network map feed failed, keeping the last known counterparty", error));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (subscription != null) {
+            subscription.unsubscribe();
+        }
+    }
+
+    public Party getCounterparty() {
+        Party party = counterparty;
+        if (party == null) {
+            throw new IllegalStateException("Counterparty " + counterpartyName + " is not in the network map");
+        }
+        return party;
+    }
+
+    private void onChange(NetworkMapCache.MapChange change) {
+        if (change instanceof NetworkMapCache.MapChange.Removed) {
+            Party party = counterparty;
+            if (party != null && change.getNode().isLegalIdentity(party)) {
+                counterparty = null;
+            }
+        } else {
+            onNodeAdded(change.getNode());
+        }
+    }
+
+    private void onNodeAdded(NodeInfo node) {
+        node.getLegalIdentities().stream()
+                .filter(party -> party.getName().equals(counterpartyX500Name))
+                .findFirst()
+                .ifPresent(party -> counterparty = party);
+    }
+}
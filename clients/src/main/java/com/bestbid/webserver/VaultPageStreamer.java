@@ -0,0 +1,127 @@
+package com.bestbid.webserver;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Reads vault pages from the node and writes them as a JSON array, one page at a time.
+ *
+ * Up to config.stream.parallelism pages are fetched ahead in parallel, while the pages are written in order, so the
+ * heap only ever holds that amount of pages no matter how many states the vault has.
+ */
+@Component
+public class VaultPageStreamer {
+
+    @Value("${config.stream.parallelism:4}")
+    private int parallelism;
+
+    private final CordaRPCOps proxy;
+    private final ObjectMapper objectMapper;
+    private ExecutorService pageFetchers;
+
+    public VaultPageStreamer(NodeRPCConnection rpc, ObjectMapper objectMapper) {
+        this.proxy = rpc.proxy;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void initialisePageFetchers() {
+        pageFetchers = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @PreDestroy
+    public void close() {
+        pageFetchers.shutdownNow();
+    }
+
+    public <T extends ContractState> Vault.Page<T> page(Class<T> stateClass, QueryCriteria criteria, Sort sort,
+                                                         int pageNumber, int pageSize) {
+        return proxy.vaultQueryBy(criteria, new PageSpecification(pageNumber, pageSize), sort, stateClass);
+    }
+
+    public <T extends ContractState, D> StreamingResponseBody stream(Class<T> stateClass, QueryCriteria criteria,
+                                                                     Sort sort, int pageSize, Function<T, D> toDto) {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+
+                Vault.Page<T> firstPage = page(stateClass, criteria, sort, 1, pageSize);
+                writePage(generator, firstPage, toDto);
+                long pages = (firstPage.getTotalStatesAvailable() + pageSize - 1) / pageSize;
+
+                Deque<CompletableFuture<Vault.Page<T>>> fetching = new ArrayDeque<>();
+                int nextPage = 2;
+                while (nextPage <= pages || !fetching.isEmpty()) {
+                    while (nextPage <= pages && fetching.size() < parallelism) {
+                        final int pageNumber = nextPage++;
+                        fetching.add(CompletableFuture.supplyAsync(
+                                () -> page(stateClass, criteria, sort, pageNumber, pageSize), pageFetchers));
+                    }
+                    writePage(generator, await(fetching.poll()), toDto);
+                }
+
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    /**
+     * Writes states already held in memory, such as those of the AuctionReadModel, flushing every pageSize states.
+     */
+    public <T, D> StreamingResponseBody stream(Collection<T> states, int pageSize, Function<T, D> toDto) {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                int written = 0;
+                for (T state : states) {
+                    generator.writeObject(toDto.apply(state));
+                    if (++written % pageSize == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    private <T extends ContractState, D> void writePage(JsonGenerator generator, Vault.Page<T> page,
+                                                        Function<T, D> toDto) throws IOException {
+        for (StateAndRef<T> stateAndRef : page.getStates()) {
+            generator.writeObject(toDto.apply(stateAndRef.getState().getData()));
+        }
+        generator.flush();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching a vault page", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not fetch a vault page", e.getCause());
+        }
+    }
+}
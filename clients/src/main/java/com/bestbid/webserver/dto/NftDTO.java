@@ -16,17 +16,21 @@ public class NftDTO {
     private String currentBidder;
     @ApiModelProperty(notes = "NFT id", example = "1", required = true)
     private String nftId;
+    @ApiModelProperty(notes = "Auction End (ISO-8601), the auction is ended at that time when set", example = "2030-01-01T12:00:00Z")
+    private String auctionEnd;
 
     public NftDTO() {
     }
 
-    public NftDTO(int bidNumber, boolean auctionEnded, String minimumBid, String currentBid, String currentBidder, String nftId) {
+    public NftDTO(int bidNumber, boolean auctionEnded, String minimumBid, String currentBid, String currentBidder, String nftId,
+                  String auctionEnd) {
         this.bidNumber = bidNumber;
         this.auctionEnded = auctionEnded;
         this.minimumBid = minimumBid;
         this.currentBid = currentBid;
         this.currentBidder = currentBidder;
         this.nftId = nftId;
+        this.auctionEnd = auctionEnd;
     }
 
     public NftDTO(String minimumBid, String nftId) {
@@ -57,4 +61,8 @@ public class NftDTO {
     public String getNftId() {
         return nftId;
     }
+
+    public String getAuctionEnd() {
+        return auctionEnd;
+    }
 }
@@ -0,0 +1,39 @@
+package com.bestbid.webserver.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+public class PageDTO<T> {
+    @ApiModelProperty(notes = "Page number, starting at 1", example = "1")
+    private final int page;
+    @ApiModelProperty(notes = "Page size", example = "100")
+    private final int size;
+    @ApiModelProperty(notes = "Amount of states available on every page", example = "1000")
+    private final long totalStates;
+    @ApiModelProperty(notes = "States on this page")
+    private final List<T> items;
+
+    public PageDTO(int page, int size, long totalStates, List<T> items) {
+        this.page = page;
+        this.size = size;
+        this.totalStates = totalStates;
+        this.items = items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalStates() {
+        return totalStates;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+}
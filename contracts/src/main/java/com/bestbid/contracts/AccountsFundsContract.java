@@ -5,12 +5,16 @@ import com.bestbid.states.AccountsFundsStateTxType;
 import com.bestbid.states.NftState;
 import net.corda.core.contracts.CommandData;
 import net.corda.core.contracts.Contract;
-import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.TypeOnlyCommandData;
 import net.corda.core.transactions.LedgerTransaction;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+import static com.bestbid.contracts.Requirements.check;
 import static net.corda.core.contracts.ContractsDSL.requireThat;
 
 public class AccountsFundsContract implements Contract {
@@ -23,15 +27,23 @@ public class AccountsFundsContract implements Contract {
 
         if (commandData instanceof AccountsFundsContract.Commands.AddFunds) {
             verifyAddFunds(tx);
+        } else if (commandData instanceof AccountsFundsContract.Commands.BulkAddFunds) {
+            verifyBulkAddFunds(tx);
         } else if (commandData instanceof AccountsFundsContract.Commands.MakeBid) {
-            verifyMakeBid(tx);
+            verifyMakeBid(new BidView(tx, (Commands.MakeBid) commandData));
+        } else if (commandData instanceof AccountsFundsContract.Commands.MergeFunds) {
+            verifyMergeFunds(tx);
         } else {
             throw new IllegalArgumentException("Command not found");
         }
     }
 
+    /**
+     * A deposit either opens a new AccountsFundsState or tops up one existing AccountsFundsState of the address.
+     */
     private void verifyAddFunds(LedgerTransaction tx) {
         AccountsFundsState output = tx.outputsOfType(AccountsFundsState.class).get(0);
+        List<AccountsFundsState> inputs = tx.inputsOfType(AccountsFundsState.class);
         Commands.AddFunds command = (Commands.AddFunds) tx.getCommand(0).component1();
         BigDecimal amountAdded = command.getAmount();
         requireThat(req -> {
@@ -43,162 +55,191 @@ public class AccountsFundsContract implements Contract {
 
             req.using("The amount shoud be greater than 0",
                     amountAdded.compareTo(new BigDecimal("0")) > 0);
+
+            req.using("AddFunds can top up at most one AccountsFundsState of the same address",
+                    tx.getInputStates().size() <= 1 && inputs.size() == tx.getInputStates().size()
+                            && allBelongTo(inputs, output.getEvmAddress()));
+
+            req.using("The output state must hold the funds of the topped up state plus the amount added",
+                    output.getFunds().compareTo(sumOfFunds(inputs).add(amountAdded)) == 0);
             return null;
         });
     }
 
-    private void verifyMakeBid(LedgerTransaction tx) {
-        ContractState firstInputState = tx.getInputStates().get(0);
+    /**
+     * A bulk deposit credits every address of the command once, on a new AccountsFundsState or on one existing
+     * AccountsFundsState of the address, the same way a single deposit does.
+     */
+    private void verifyBulkAddFunds(LedgerTransaction tx) {
+        Map<String, BigDecimal> amountsAdded = ((Commands.BulkAddFunds) tx.getCommand(0).getValue()).getAmountsByAddress();
+        List<AccountsFundsState> inputs = tx.inputsOfType(AccountsFundsState.class);
+        List<AccountsFundsState> outputs = tx.outputsOfType(AccountsFundsState.class);
+        Map<String, BigDecimal> inputFundsByAddress = inputs.stream()
+                .collect(Collectors.toMap(AccountsFundsState::getEvmAddress, AccountsFundsState::getFunds,
+                        BigDecimal::add));
         requireThat(req -> {
-            req.using("First input state must be of type NftState",
-                    firstInputState instanceof NftState);
-            return null;
-        });
+            req.using("A bulk deposit must credit at least one address",
+                    !amountsAdded.isEmpty());
 
-        NftState nftInputState = (NftState) firstInputState;
-        if (nftInputState.getBidNumber() == 0) {
-            verifyFirstBidOnNft(tx, nftInputState);
-        } else {
-            verifyBidsThatArentTheFirstOne(tx, nftInputState);
-        }
-    }
+            req.using("A bulk deposit can only consume and generate AccountsFundsStates",
+                    inputs.size() == tx.getInputStates().size() && outputs.size() == tx.getOutputStates().size());
 
-    private void verifyFirstBidOnNft(LedgerTransaction tx, NftState nftInputState) {
-        requireThat(req -> {
-            req.using("On first bid only 2 input states should be consumed",
-                    tx.getInputStates().size() == 2);
-            return null;
-        });
+            req.using("A bulk deposit must generate one and only one output state per address",
+                    outputs.size() == amountsAdded.size()
+                            && outputs.stream().map(AccountsFundsState::getEvmAddress).collect(Collectors.toSet())
+                            .equals(amountsAdded.keySet()));
 
-        ContractState secondInputState = tx.getInputStates().get(1);
-        requireThat(req -> {
-            req.using("Second input state must be of type AccountsFundsState",
-                    secondInputState instanceof AccountsFundsState);
+            req.using("The tx type should be NEW_FUNDS",
+                    outputs.stream().allMatch(output -> output.getType() == AccountsFundsStateTxType.NEW_FUNDS));
+
+            req.using("The amount shoud be greater than 0",
+                    amountsAdded.values().stream().allMatch(amount -> amount.compareTo(BigDecimal.ZERO) > 0));
+
+            req.using("A bulk deposit can top up at most one AccountsFundsState per address",
+                    inputFundsByAddress.size() == inputs.size()
+                            && amountsAdded.keySet().containsAll(inputFundsByAddress.keySet()));
+
+            req.using("Every output state must hold the funds of its topped up state plus the amount added",
+                    outputs.stream().allMatch(output -> output.getFunds().compareTo(
+                            inputFundsByAddress.getOrDefault(output.getEvmAddress(), BigDecimal.ZERO)
+                                    .add(amountsAdded.get(output.getEvmAddress()))) == 0));
             return null;
         });
+    }
 
-        AccountsFundsState accountsFundsInputState = (AccountsFundsState) secondInputState;
-        BigDecimal amountBidded = ((Commands.MakeBid) tx.getCommand(0).component1()).getAmount();
+    /**
+     * A bid spends the NftState and AccountsFundsStates ("coins") of the bidder, which get a single coin back as
+     * change. Funds are checked per address, so the bidder can spend any number of coins and the current bidder can
+     * be refunded on one of its coins or on a new one.
+     *
+     * Every transaction of an auction goes through here on both parties and on every backchain resolution, so the
+     * checks only compare the counts and totals of a BidView, which reads the transaction once.
+     */
+    private void verifyMakeBid(BidView bid) {
+        check("First input state must be of type NftState",
+                bid.getNftInput() != null);
 
-        requireThat(req -> {
-            req.using("Amount bidded must be equal or higher than minimum bid",
-                    amountBidded.compareTo(nftInputState.getMinimumBid()) >= 0);
+        check("first output state must be of type NftState",
+                bid.getNftOutput() != null);
 
-            req.using("Bidder need to have enough funds",
-                    accountsFundsInputState.getFunds().compareTo(amountBidded) >= 0);
+        check("A bid must consume one and only one NftState",
+                bid.getNftInputs() == 1);
 
-            req.using("When a first bid on an NFT is made two and only two output states must be generated",
-                    tx.getOutputStates().size() == 2);
-            return null;
-        });
+        check("A bid must generate one and only one NftState",
+                bid.getNftOutputs() == 1);
 
-        ContractState firstOutputState = tx.getOutputStates().get(0);
-        ContractState secondOutputState = tx.getOutputStates().get(1);
+        check("A bid can only consume the NftState and AccountsFundsStates",
+                bid.getInputs() == 1 + bid.getAccountsInputs());
 
-        requireThat(req -> {
-            req.using("first output state must be of type NftState",
-                    firstOutputState instanceof NftState);
+        check("A bid can only generate the NftState and AccountsFundsStates",
+                bid.getOutputs() == 1 + bid.getAccountsOutputs());
 
-            req.using("second output state must be of type AccountsFundsState",
-                    secondOutputState instanceof AccountsFundsState);
-            return null;
-        });
+        check("Outputted NftState must have current bid equal to amount bidded",
+                bid.getNftOutput().getCurrentBid().compareTo(bid.getAmount()) == 0);
 
-        NftState nftOutputState = (NftState) firstOutputState;
-        AccountsFundsState accountsFundsOutputState = (AccountsFundsState) secondOutputState;
+        if (bid.isFirstBid()) {
+            verifyFirstBidOnNft(bid);
+        } else {
+            verifyBidsThatArentTheFirstOne(bid);
+        }
+        verifyBidderFunds(bid);
+    }
 
-        requireThat(req -> {
-            req.using("Outputted AccountsFundsState must have funds equal to old funds minus amount bidded",
-                    accountsFundsOutputState.getFunds().compareTo(accountsFundsInputState.getFunds().subtract(amountBidded)) == 0);
+    private void verifyFirstBidOnNft(BidView bid) {
+        BidView.Coins bidder = bid.getBidder();
 
-            req.using("Outputted AccountsFundsState must have type as NEW_BID",
-                    accountsFundsOutputState.getType() == AccountsFundsStateTxType.NEW_BID);
+        check("Amount bidded must be equal or higher than minimum bid",
+                bid.getAmount().compareTo(bid.getNftInput().getMinimumBid()) >= 0);
 
-            req.using("Outputted NftState must have bid number equal to 1",
-                    nftOutputState.getBidNumber() == 1);
+        check("On first bid only AccountsFundsStates of the bidder can be consumed or generated",
+                bidder.getInputs() == bid.getAccountsInputs() && bidder.getOutputs() == bid.getAccountsOutputs());
 
-            req.using("Outputted NftState must have current bid equal to amount bidded",
-                    nftOutputState.getCurrentBid().compareTo(amountBidded) == 0);
-            return null;
-        });
+        check("Outputted NftState must have bid number equal to 1",
+                bid.getNftOutput().getBidNumber() == 1);
     }
 
-    private void verifyBidsThatArentTheFirstOne(LedgerTransaction tx, NftState nftInputState) {
-        requireThat(req -> {
-            req.using("After the first bid all tx must have 3 and only 3 input states.",
-                    tx.getInputStates().size() == 3);
-            return null;
-        });
+    private void verifyBidsThatArentTheFirstOne(BidView bid) {
+        BidView.Coins bidder = bid.getBidder();
+        BidView.Coins oldBidder = bid.getOldBidder();
+        NftState nftInput = bid.getNftInput();
 
-        ContractState secondInputState = tx.getInputStates().get(1);
-        ContractState thirdInputState = tx.getInputStates().get(2);
-        requireThat(req -> {
-            req.using("Second input state must be of type AccountsFundsState",
-                    secondInputState instanceof AccountsFundsState);
+        check("New bidder cannot be the same as current bidder",
+                !oldBidder.getEvmAddress().equals(bidder.getEvmAddress()));
 
-            req.using("Third input state must be of type AccountsFundsState",
-                    thirdInputState instanceof AccountsFundsState);
-            return null;
-        });
+        check("Amount bidded must be higher than current bid",
+                bid.getAmount().compareTo(nftInput.getCurrentBid()) > 0);
 
-        AccountsFundsState newBidderAccountsFundsInputState = (AccountsFundsState) secondInputState;
-        AccountsFundsState oldBidderAccountsFundsInputState = (AccountsFundsState) thirdInputState;
-        BigDecimal amountBidded = ((Commands.MakeBid) tx.getCommand(0).component1()).getAmount();
+        check("Only AccountsFundsStates of the bidder and of the old bidder can be consumed or generated",
+                bidder.getInputs() + oldBidder.getInputs() == bid.getAccountsInputs()
+                        && bidder.getOutputs() + oldBidder.getOutputs() == bid.getAccountsOutputs());
 
-        requireThat(req -> {
-            req.using("New bidder cannot be the same as current bidder",
-                    !nftInputState.getCurrentBidder().equals(newBidderAccountsFundsInputState.getEvmAddress()));
+        check("The old bidder must be refunded on one and only one AccountsFundsState",
+                oldBidder.getOutputs() == 1);
 
-            req.using("Amount bidded must be higher than current bid",
-                    amountBidded.compareTo(nftInputState.getCurrentBid()) > 0);
+        check("Outputted AccountsFundsState from old bidder must have funds equal to his current funds plus the amount that he bidded",
+                oldBidder.getOutputFunds().compareTo(oldBidder.getInputFunds().add(nftInput.getCurrentBid())) == 0);
 
-            req.using("Bidder need to have enough funds",
-                    newBidderAccountsFundsInputState.getFunds().compareTo(amountBidded) >= 0);
-            return null;
-        });
+        check("Outputted AccountsFundsState from old bidder must have type as BID_OVERTAKEN",
+                oldBidder.getOutputsOfOtherType() == 0);
 
-        ContractState firstOutputState = tx.getOutputStates().get(0);
-        ContractState secondOutputState = tx.getOutputStates().get(1);
-        ContractState thirdOutputState = tx.getOutputStates().get(2);
+        check("Outputted NftState has wrong bid number",
+                bid.getNftOutput().getBidNumber() == (nftInput.getBidNumber() + 1));
+    }
 
-        requireThat(req -> {
-            req.using("first output state must be of type NftState",
-                    firstOutputState instanceof NftState);
+    private void verifyBidderFunds(BidView bid) {
+        BidView.Coins bidder = bid.getBidder();
 
-            req.using("second output state must be of type AccountsFundsState",
-                    secondOutputState instanceof AccountsFundsState);
+        check("The bidder must spend at least one AccountsFundsState",
+                bidder.getInputs() > 0);
 
-            req.using("third output state must be of type AccountsFundsState",
-                    thirdOutputState instanceof AccountsFundsState);
-            return null;
-        });
+        check("Bidder need to have enough funds",
+                bidder.getInputFunds().compareTo(bid.getAmount()) >= 0);
 
-        NftState nftOutputState = (NftState) firstOutputState;
-        AccountsFundsState newBidderAccountsFundsOutputState = (AccountsFundsState) secondOutputState;
-        AccountsFundsState oldBidderAccountsFundsOutputState = (AccountsFundsState) thirdOutputState;
+        check("The bidder must get one and only one AccountsFundsState back as change",
+                bidder.getOutputs() == 1);
 
-        requireThat(req -> {
-            req.using("Outputted AccountsFundsState from bidder must have funds equal to old funds minus amount bidded",
-                    newBidderAccountsFundsOutputState.getFunds().compareTo(newBidderAccountsFundsInputState.getFunds().subtract(amountBidded)) == 0);
+        check("Outputted AccountsFundsState from bidder must have funds equal to old funds minus amount bidded",
+                bidder.getOutputFunds().compareTo(bidder.getInputFunds().subtract(bid.getAmount())) == 0);
+
+        check("Outputted AccountsFundsState from bidder must have type as NEW_BID",
+                bidder.getOutputsOfOtherType() == 0);
+    }
 
-            req.using("Outputted AccountsFundsState from old bidder must have funds equal to his current funds plus the amount that he bidded",
-                    oldBidderAccountsFundsOutputState.getFunds().compareTo(oldBidderAccountsFundsInputState.getFunds().add(nftInputState.getCurrentBid())) == 0);
+    /**
+     * Merges AccountsFundsStates of one address into a single one, so the coins split off by deposits and refunds
+     * don't grow without bound.
+     */
+    private void verifyMergeFunds(LedgerTransaction tx) {
+        List<AccountsFundsState> inputs = tx.inputsOfType(AccountsFundsState.class);
+        List<AccountsFundsState> outputs = tx.outputsOfType(AccountsFundsState.class);
+        requireThat(req -> {
+            req.using("A merge must consume at least two AccountsFundsStates and nothing else",
+                    inputs.size() >= 2 && inputs.size() == tx.getInputStates().size());
 
-            req.using("Outputted AccountsFundsState from bidder must have type as NEW_BID",
-                    newBidderAccountsFundsOutputState.getType() == AccountsFundsStateTxType.NEW_BID);
+            req.using("A merge must generate one and only one AccountsFundsState",
+                    outputs.size() == 1 && tx.getOutputStates().size() == 1);
 
-            req.using("Outputted AccountsFundsState from old bidder must have type as BID_OVERTAKEN",
-                    oldBidderAccountsFundsOutputState.getType() == AccountsFundsStateTxType.BID_OVERTAKEN);
+            AccountsFundsState output = outputs.get(0);
+            req.using("Only AccountsFundsStates of the same address can be merged",
+                    allBelongTo(inputs, output.getEvmAddress()));
 
-            req.using("Outputted NftState has wrong bid number",
-                    nftOutputState.getBidNumber() == (nftInputState.getBidNumber() + 1));
+            req.using("The merged AccountsFundsState must hold the funds of all the merged ones",
+                    output.getFunds().compareTo(sumOfFunds(inputs)) == 0);
 
-            req.using("Outputted NftState must have current bid equal to amount bidded",
-                    nftOutputState.getCurrentBid().compareTo(amountBidded) == 0);
+            req.using("The tx type should be FUNDS_MERGED",
+                    output.getType() == AccountsFundsStateTxType.FUNDS_MERGED);
             return null;
         });
     }
 
+    private static boolean allBelongTo(List<AccountsFundsState> states, String evmAddress) {
+        return states.stream().allMatch(state -> state.getEvmAddress().equals(evmAddress));
+    }
+
+    private static BigDecimal sumOfFunds(List<AccountsFundsState> states) {
+        return states.stream().map(AccountsFundsState::getFunds).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
 
     public interface Commands extends CommandData {
         class AddFunds implements Commands {
@@ -213,6 +254,21 @@ public class AccountsFundsContract implements Contract {
             }
         }
 
+        /**
+         * Credits several addresses in one transaction. amountsByAddress is keyed by the normalised address.
+         */
+        class BulkAddFunds implements Commands {
+            private final Map<String, BigDecimal> amountsByAddress;
+
+            public BulkAddFunds(Map<String, BigDecimal> amountsByAddress) {
+                this.amountsByAddress = amountsByAddress;
+            }
+
+            public Map<String, BigDecimal> getAmountsByAddress() {
+                return amountsByAddress;
+            }
+        }
+
         class MakeBid implements Commands {
             private final BigDecimal amount;
 
@@ -224,5 +280,34 @@ public class AccountsFundsContract implements Contract {
                 return amount;
             }
         }
+
+        class MergeFunds extends TypeOnlyCommandData implements Commands {
+        }
+
+        /**
+         * The winning bid of a batching window, recorded in place of every bid of the window. The outbid ones were
+         * rejected off-ledger, collapsedBids and highestRejectedBid keep a trace of them.
+         *
+         * They are only reported by the node that made the bid and can't be checked against the ledger, so the
+         * contract verifies this command as a plain MakeBid.
+         */
+        class MakeBatchedBid extends MakeBid {
+            private final int collapsedBids;
+            private final BigDecimal highestRejectedBid;
+
+            public MakeBatchedBid(BigDecimal amount, int collapsedBids, BigDecimal highestRejectedBid) {
+                super(amount);
+                this.collapsedBids = collapsedBids;
+                this.highestRejectedBid = highestRejectedBid;
+            }
+
+            public int getCollapsedBids() {
+                return collapsedBids;
+            }
+
+            public BigDecimal getHighestRejectedBid() {
+                return highestRejectedBid;
+            }
+        }
     }
 }
@@ -0,0 +1,215 @@
+package com.bestbid.contracts;
+
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.TimeWindow;
+import net.corda.core.contracts.TransactionState;
+import net.corda.core.transactions.LedgerTransaction;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A bid transaction read in a single pass: the NftState going in and out, and the AccountsFundsStates ("coins") of the
+ * bidder and of the old bidder summed up per address. AccountsFundsContract and NftContract both check a bid against
+ * it instead of walking the transaction themselves.
+ *
+ * It is only derived from the transaction and can't be changed once read, so the same view gives the same answers to
+ * every check. Nothing is cached between transactions, each verification reads its own view.
+ */
+public final class BidView {
+    private final AccountsFundsContract.Commands.MakeBid command;
+    private final NftState nftInput;
+    private final NftState nftOutput;
+    private final TimeWindow timeWindow;
+    private final Coins bidder;
+    private final Coins oldBidder;
+    private final int inputs;
+    private final int outputs;
+    private final int nftInputs;
+    private final int nftOutputs;
+    private final int accountsInputs;
+    private final int accountsOutputs;
+
+    public BidView(LedgerTransaction tx, AccountsFundsContract.Commands.MakeBid command) {
+        List<StateAndRef<ContractState>> txInputs = tx.getInputs();
+        List<TransactionState<ContractState>> txOutputs = tx.getOutputs();
+        this.command = command;
+        this.nftInput = txInputs.isEmpty() ? null : asNft(txInputs.get(0).getState().getData());
+        this.nftOutput = txOutputs.isEmpty() ? null : asNft(txOutputs.get(0).getData());
+        this.timeWindow = tx.getTimeWindow();
+        this.bidder = new Coins(nftOutput == null ? null : nftOutput.getCurrentBidder(),
+                AccountsFundsStateTxType.NEW_BID);
+        this.oldBidder = new Coins(nftInput == null ? null : nftInput.getCurrentBidder(),
+                AccountsFundsStateTxType.BID_OVERTAKEN);
+        this.inputs = txInputs.size();
+        this.outputs = txOutputs.size();
+
+        int nftInputs = 0;
+        int accountsInputs = 0;
+        for (int i = 0; i < inputs; i++) {
+            ContractState state = txInputs.get(i).getState().getData();
+            if (state instanceof NftState) {
+                nftInputs++;
+            } else if (state instanceof AccountsFundsState) {
+                accountsInputs++;
+                bidder.addInput((AccountsFundsState) state);
+                oldBidder.addInput((AccountsFundsState) state);
+            }
+        }
+        int nftOutputs = 0;
+        int accountsOutputs = 0;
+        for (int i = 0; i < outputs; i++) {
+            ContractState state = txOutputs.get(i).getData();
+            if (state instanceof NftState) {
+                nftOutputs++;
+            } else if (state instanceof AccountsFundsState) {
+                accountsOutputs++;
+                bidder.addOutput((AccountsFundsState) state);
+                oldBidder.addOutput((AccountsFundsState) state);
+            }
+        }
+        this.nftInputs = nftInputs;
+        this.nftOutputs = nftOutputs;
+        this.accountsInputs = accountsInputs;
+        this.accountsOutputs = accountsOutputs;
+    }
+
+    public AccountsFundsContract.Commands.MakeBid getCommand() {
+        return command;
+    }
+
+    public BigDecimal getAmount() {
+        return command.getAmount();
+    }
+
+    /**
+     * The first input, null if it isn't an NftState.
+     */
+    public NftState getNftInput() {
+        return nftInput;
+    }
+
+    /**
+     * The first output, null if it isn't an NftState.
+     */
+    public NftState getNftOutput() {
+        return nftOutput;
+    }
+
+    public TimeWindow getTimeWindow() {
+        return timeWindow;
+    }
+
+    /**
+     * Whether the input NftState has no bid yet, false when the first input isn't an NftState.
+     */
+    public boolean isFirstBid() {
+        return nftInput != null && nftInput.getBidNumber() == 0;
+    }
+
+    /**
+     * The coins of the current bidder of the output NftState.
+     */
+    public Coins getBidder() {
+        return bidder;
+    }
+
+    /**
+     * The coins of the current bidder of the input NftState, who gets refunded.
+     */
+    public Coins getOldBidder() {
+        return oldBidder;
+    }
+
+    public int getInputs() {
+        return inputs;
+    }
+
+    public int getOutputs() {
+        return outputs;
+    }
+
+    public int getNftInputs() {
+        return nftInputs;
+    }
+
+    public int getNftOutputs() {
+        return nftOutputs;
+    }
+
+    public int getAccountsInputs() {
+        return accountsInputs;
+    }
+
+    public int getAccountsOutputs() {
+        return accountsOutputs;
+    }
+
+    private static NftState asNft(ContractState state) {
+        return state instanceof NftState ? (NftState) state : null;
+    }
+
+    /**
+     * The coins of one address in a bid. outputsOfOtherType counts the outputs without the type the address must get,
+     * NEW_BID for the bidder and BID_OVERTAKEN for the old bidder.
+     */
+    public static final class Coins {
+        private final String evmAddress;
+        private final AccountsFundsStateTxType outputType;
+        private int inputs;
+        private int outputs;
+        private int outputsOfOtherType;
+        private BigDecimal inputFunds = BigDecimal.ZERO;
+        private BigDecimal outputFunds = BigDecimal.ZERO;
+
+        private Coins(String evmAddress, AccountsFundsStateTxType outputType) {
+            this.evmAddress = evmAddress;
+            this.outputType = outputType;
+        }
+
+        public String getEvmAddress() {
+            return evmAddress;
+        }
+
+        public int getInputs() {
+            return inputs;
+        }
+
+        public int getOutputs() {
+            return outputs;
+        }
+
+        public int getOutputsOfOtherType() {
+            return outputsOfOtherType;
+        }
+
+        public BigDecimal getInputFunds() {
+            return inputFunds;
+        }
+
+        public BigDecimal getOutputFunds() {
+            return outputFunds;
+        }
+
+        private void addInput(AccountsFundsState state) {
+            if (state.getEvmAddress().equals(evmAddress)) {
+                inputs++;
+                inputFunds = inputFunds.add(state.getFunds());
+            }
+        }
+
+        private void addOutput(AccountsFundsState state) {
+            if (state.getEvmAddress().equals(evmAddress)) {
+                outputs++;
+                outputFunds = outputFunds.add(state.getFunds());
+                if (state.getType() != outputType) {
+                    outputsOfOtherType++;
+                }
+            }
+        }
+    }
+}
@@ -4,11 +4,17 @@ import com.bestbid.states.NftState;
 import net.corda.core.contracts.CommandData;
 import net.corda.core.contracts.Contract;
 import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.TimeWindow;
 import net.corda.core.transactions.LedgerTransaction;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
+import static com.bestbid.contracts.Requirements.check;
 import static net.corda.core.contracts.ContractsDSL.requireThat;
 
 public class NftContract implements Contract {
@@ -21,10 +27,14 @@ public class NftContract implements Contract {
 
         if (commandData instanceof Commands.Issue) {
             verifyIssue(tx);
+        } else if (commandData instanceof Commands.BatchIssue) {
+            verifyBatchIssue(tx);
         } else if (commandData instanceof AccountsFundsContract.Commands.MakeBid) {
-            verifyMakeBid(tx);
+            verifyMakeBid(new BidView(tx, (AccountsFundsContract.Commands.MakeBid) commandData));
         } else if (commandData instanceof Commands.EndAuction) {
             verifyEndAuction(tx);
+        } else if (commandData instanceof Commands.BatchEndAuction) {
+            verifyBatchEndAuction(tx);
         } else {
             throw new IllegalArgumentException("Command not found");
         }
@@ -54,10 +64,72 @@ public class NftContract implements Contract {
               req.using("Auction ended must be true on the output State.",
                      outputState.isAuctionEnded());
 
+              req.using("The end time of the auction can't be changed.",
+                     Objects.equals(inputState.getAuctionEnd(), outputState.getAuctionEnd()));
+
+              req.using("The auction must keep its linearId, NftId and minimum bid.",
+                     isSameAuction(inputState, outputState));
+
+            return null;
+        });
+    }
+
+    /**
+     * Every input must be an open auction with a different NftId, ended by the output with the same NftId, the same
+     * as a single end of auction.
+     */
+    private void verifyBatchEndAuction(LedgerTransaction tx) {
+        List<NftState> inputStates = tx.inputsOfType(NftState.class);
+        List<NftState> outputStates = tx.outputsOfType(NftState.class);
+        requireThat(req -> {
+            req.using("A batch end of auctions must consume at least one NftState.",
+                    !inputStates.isEmpty());
+
+            req.using("Input states must be of type NftState.",
+                    inputStates.size() == tx.getInputStates().size());
+
+            req.using("Output states must be of type NftState.",
+                    outputStates.size() == tx.getOutputStates().size());
+
+            req.using("There must be one NftState outputted per NftState inputted.",
+                    inputStates.size() == outputStates.size());
+
+            Map<String, NftState> inputsByNftId = inputStates.stream()
+                    .collect(Collectors.toMap(NftState::getNftId, state -> state, (first, second) -> first));
+            req.using("Every NftState inputted must have a different NftId.",
+                    inputsByNftId.size() == inputStates.size());
+
+            req.using("Auction ended must be false on the input States.",
+                    inputStates.stream().noneMatch(NftState::isAuctionEnded));
+
+            req.using("Every NftState outputted must end the auction of the input with the same NftId.",
+                    outputStates.stream().allMatch(output -> isEndOf(inputsByNftId.get(output.getNftId()), output)));
+
+            req.using("Every NftState outputted must have a different NftId.",
+                    outputStates.stream().map(NftState::getNftId).distinct().count() == outputStates.size());
             return null;
         });
     }
 
+    private static boolean isEndOf(NftState input, NftState output) {
+        return input != null
+                && output.isAuctionEnded()
+                && isSameAuction(input, output)
+                && input.getBidNumber() == output.getBidNumber()
+                && input.getCurrentBid().compareTo(output.getCurrentBid()) == 0
+                && input.getCurrentBidder().equals(output.getCurrentBidder())
+                && Objects.equals(input.getAuctionEnd(), output.getAuctionEnd());
+    }
+
+    /**
+     * Whether the output is an evolution of the same auction: the linearId, NftId and minimum bid never change.
+     */
+    private static boolean isSameAuction(NftState input, NftState output) {
+        return input.getLinearId().equals(output.getLinearId())
+                && input.getNftId().equals(output.getNftId())
+                && input.getMinimumBid().compareTo(output.getMinimumBid()) == 0;
+    }
+
     private void verifyIssue(LedgerTransaction tx) {
         ContractState output = tx.getOutputStates().get(0);
         requireThat(req -> {
@@ -90,30 +162,79 @@ public class NftContract implements Contract {
         });
     }
 
-    private void verifyMakeBid(LedgerTransaction tx) {
-        ContractState firstInputState = tx.getInputStates().get(0);
+    /**
+     * Every output of a batch must be a valid new NftState, the same as a single issue, with a different NftId.
+     */
+    private void verifyBatchIssue(LedgerTransaction tx) {
+        List<NftState> outputStates = tx.outputsOfType(NftState.class);
         requireThat(req -> {
-            req.using("First input state must be of type NftState.",
-                    firstInputState instanceof NftState);
+            req.using("No inputs should be consumed when issuing a NftState.",
+                    tx.getInputStates().size() == 0);
 
-            req.using("There must be only one NftState outputted.",
-                    tx.outputsOfType(NftState.class).size() == 1);
+            req.using("A batch issue must generate at least one NftState",
+                    !outputStates.isEmpty());
+
+            req.using("When issuing a new NftState the type of the outputted state must be NftState",
+                    outputStates.size() == tx.getOutputStates().size());
+
+            req.using("Minimum Bid must be more than zero.",
+                    outputStates.stream().allMatch(state -> state.getMinimumBid().compareTo(BigDecimal.ZERO) > 0));
 
-            NftState inputState = (NftState) tx.getInputStates().get(0);
+            req.using("When issuing a NftState the bid number must be 0",
+                    outputStates.stream().allMatch(state -> state.getBidNumber() == 0));
 
-            req.using("You can't make a bid on a ended auction.",
-                    !inputState.isAuctionEnded());
+            req.using("When issuing a NftState the current bidder must be empty",
+                    outputStates.stream().allMatch(state -> state.getCurrentBidder().equals("")));
 
-            NftState outputState = (NftState) tx.getOutputStates().get(0);
+            req.using("When issuing a NftId must not be null",
+                    outputStates.stream().allMatch(state -> state.getNftId() != null));
 
-            req.using("Auction ended must be false on the output State.",
-                    !outputState.isAuctionEnded());
+            req.using("Every NftState of a batch must have a different NftId",
+                    outputStates.stream().map(NftState::getNftId).distinct().count() == outputStates.size());
             return null;
         });
     }
 
+    /**
+     * Runs on every bid next to AccountsFundsContract, the NftStates are read from the same kind of BidView.
+     */
+    private void verifyMakeBid(BidView bid) {
+        check("First input state must be of type NftState.",
+                bid.getNftInput() != null);
+
+        check("There must be only one NftState outputted.",
+                bid.getNftOutputs() == 1);
+
+        NftState inputState = bid.getNftInput();
+
+        check("You can't make a bid on a ended auction.",
+                !inputState.isAuctionEnded());
+
+        NftState outputState = bid.getNftOutput();
+
+        check("Auction ended must be false on the output State.",
+                outputState != null && !outputState.isAuctionEnded());
+
+        check("The end time of the auction can't be changed.",
+                Objects.equals(inputState.getAuctionEnd(), outputState.getAuctionEnd()));
+
+        check("The auction must keep its linearId, NftId and minimum bid.",
+                isSameAuction(inputState, outputState));
+
+        if (inputState.getAuctionEnd() != null) {
+            TimeWindow timeWindow = bid.getTimeWindow();
+            check("A bid on an auction with an end time must have a time window.",
+                    timeWindow != null && timeWindow.getUntilTime() != null);
+
+            check("You can't make a bid after the end of the auction.",
+                    !timeWindow.getUntilTime().isAfter(inputState.getAuctionEnd()));
+        }
+    }
+
     public interface Commands extends CommandData {
         class Issue implements Commands {}
+        class BatchIssue implements Commands {}
         class EndAuction implements Commands {}
+        class BatchEndAuction implements Commands {}
     }
 }
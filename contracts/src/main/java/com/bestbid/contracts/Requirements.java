@@ -0,0 +1,17 @@
+package com.bestbid.contracts;
+
+/**
+ * Same failure as ContractsDSL.requireThat, for the checks on hot paths that don't want to allocate a lambda per
+ * transaction.
+ */
+final class Requirements {
+
+    private Requirements() {
+    }
+
+    static void check(String requirement, boolean holds) {
+        if (!holds) {
+            throw new IllegalArgumentException("Failed requirement: " + requirement);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bestbid.schema;
 
+import com.bestbid.states.EvmAddress;
 import net.corda.core.schemas.MappedSchema;
 import net.corda.core.schemas.PersistentState;
 import org.hibernate.annotations.Type;
@@ -7,6 +8,7 @@ import org.hibernate.annotations.Type;
 import javax.annotation.Nullable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import java.util.Arrays;
 import java.util.UUID;
@@ -23,7 +25,10 @@ public class AccountsFundsStateSchemaV1 extends MappedSchema {
     }
 
     @Entity
-    @Table(name = "accounts_funds_states")
+    @Table(name = "accounts_funds_states", indexes = {
+            @Index(name = "accounts_funds_states_evm_address_idx", columnList = "evm_address"),
+            @Index(name = "accounts_funds_states_state_ref_idx", columnList = "transaction_id,output_index")
+    })
     public static class PersistentAccountsFundsState extends PersistentState {
         @Column(name = "type") private final String type;
         @Column(name = "evm_address") private final String evmAddress;
@@ -35,7 +40,7 @@ public class AccountsFundsStateSchemaV1 extends MappedSchema {
         public PersistentAccountsFundsState(String type, String evmAddress, String funds, String sender,
                                             String receiver, UUID linearId) {
             this.type = type;
-            this.evmAddress = evmAddress;
+            this.evmAddress = EvmAddress.normalise(evmAddress);
             this.funds = funds;
             this.sender = sender;
             this.receiver = receiver;
@@ -0,0 +1,90 @@
+package com.bestbid.schema;
+
+import com.bestbid.states.EvmAddress;
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+import org.hibernate.annotations.Type;
+
+import javax.annotation.Nullable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Same as {@link AccountsFundsStateSchemaV1} but with the funds stored as DECIMAL, so they can be filtered and sorted
+ * by the database.
+ */
+public class AccountsFundsStateSchemaV2 extends MappedSchema {
+    public AccountsFundsStateSchemaV2() {
+        super(AccountsFundsStateSchema.class, 2, Arrays.asList(PersistentAccountsFundsState.class));
+    }
+
+    @Nullable
+    @Override
+    public String getMigrationResource() {
+        return "accounts-funds-state-schema-v2.changelog-master";
+    }
+
+    @Entity
+    @Table(name = "accounts_funds_states_v2", indexes = {
+            @Index(name = "accounts_funds_states_v2_evm_address_idx", columnList = "evm_address"),
+            @Index(name = "accounts_funds_states_v2_funds_idx", columnList = "funds"),
+            @Index(name = "accounts_funds_states_v2_state_ref_idx", columnList = "transaction_id,output_index")
+    })
+    public static class PersistentAccountsFundsState extends PersistentState {
+        @Column(name = "type") private final String type;
+        @Column(name = "evm_address") private final String evmAddress;
+        @Column(name = "funds", precision = 38, scale = 18) private final BigDecimal funds;
+        @Column(name = "linear_id") @Type(type = "uuid-char") private final UUID linearId;
+        @Column(name = "sender") private final String sender;
+        @Column(name = "receiver") private final String receiver;
+
+        public PersistentAccountsFundsState(String type, String evmAddress, BigDecimal funds, String sender,
+                                            String receiver, UUID linearId) {
+            this.type = type;
+            this.evmAddress = EvmAddress.normalise(evmAddress);
+            this.funds = funds;
+            this.sender = sender;
+            this.receiver = receiver;
+            this.linearId = linearId;
+        }
+
+        // Default constructor required by hibernate.
+        public PersistentAccountsFundsState() {
+            this.type = null;
+            this.evmAddress = null;
+            this.funds = null;
+            this.sender = null;
+            this.receiver = null;
+            this.linearId = null;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getEvmAddress() {
+            return evmAddress;
+        }
+
+        public BigDecimal getFunds() {
+            return funds;
+        }
+
+        public UUID getLinearId() {
+            return linearId;
+        }
+
+        public String getSender() {
+            return sender;
+        }
+
+        public String getReceiver() {
+            return receiver;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bestbid.schema;
 
+import com.bestbid.states.EvmAddress;
 import net.corda.core.schemas.MappedSchema;
 import net.corda.core.schemas.PersistentState;
 import org.hibernate.annotations.Type;
@@ -7,6 +8,7 @@ import org.hibernate.annotations.Type;
 import javax.annotation.Nullable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import java.util.Arrays;
 import java.util.UUID;
@@ -23,7 +25,11 @@ public class NftStateSchemaV1 extends MappedSchema {
     }
 
     @Entity
-    @Table(name = "nft_states")
+    @Table(name = "nft_states", indexes = {
+            @Index(name = "nft_states_nft_id_idx", columnList = "nft_id"),
+            @Index(name = "nft_states_current_bidder_idx", columnList = "current_bidder"),
+            @Index(name = "nft_states_state_ref_idx", columnList = "transaction_id,output_index")
+    })
     public static class PersistentNftState extends PersistentState {
         @Column(name = "bid_number") private final int bidNumber;
         @Column(name = "auction_ended") private final boolean auctionEnded;
@@ -41,7 +47,7 @@ public class NftStateSchemaV1 extends MappedSchema {
             this.auctionEnded = auctionEnded;
             this.minimumBid = minimumBid;
             this.currentBid = currentBid;
-            this.currentBidder = currentBidder;
+            this.currentBidder = EvmAddress.normalise(currentBidder);
             this.nftId = nftId;
             this.linearId = linearId;
             this.sender = sender;
@@ -0,0 +1,121 @@
+package com.bestbid.schema;
+
+import com.bestbid.states.EvmAddress;
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+import org.hibernate.annotations.Type;
+
+import javax.annotation.Nullable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Same as {@link NftStateSchemaV1} but with the bids stored as DECIMAL, so they can be filtered and sorted by the
+ * database.
+ */
+public class NftStateSchemaV2 extends MappedSchema {
+    public NftStateSchemaV2() {
+        super(NftStateSchema.class, 2, Arrays.asList(PersistentNftState.class));
+    }
+
+    @Nullable
+    @Override
+    public String getMigrationResource() {
+        return "nft-state-schema-v2.changelog-master";
+    }
+
+    @Entity
+    @Table(name = "nft_states_v2", indexes = {
+            @Index(name = "nft_states_v2_nft_id_idx", columnList = "nft_id"),
+            @Index(name = "nft_states_v2_current_bidder_idx", columnList = "current_bidder"),
+            @Index(name = "nft_states_v2_current_bid_idx", columnList = "current_bid"),
+            @Index(name = "nft_states_v2_state_ref_idx", columnList = "transaction_id,output_index")
+    })
+    public static class PersistentNftState extends PersistentState {
+        @Column(name = "bid_number") private final int bidNumber;
+        @Column(name = "auction_ended") private final boolean auctionEnded;
+        @Column(name = "minimum_bid", precision = 38, scale = 18) private final BigDecimal minimumBid;
+        @Column(name = "current_bid", precision = 38, scale = 18) private final BigDecimal currentBid;
+        @Column(name = "current_bidder") private final String currentBidder;
+        @Column(name = "nft_id") private final String nftId;
+        @Column(name = "sender") private final String sender;
+        @Column(name = "receiver") private final String receiver;
+        @Column(name = "linear_id") @Type(type = "uuid-char") private final UUID linearId;
+        @Column(name = "auction_end") private final Instant auctionEnd;
+
+        public PersistentNftState(int bidNumber, boolean auctionEnded, BigDecimal minimumBid, BigDecimal currentBid,
+                                  String currentBidder, String nftId, UUID linearId, String sender, String receiver,
+                                  Instant auctionEnd) {
+            this.bidNumber = bidNumber;
+            this.auctionEnded = auctionEnded;
+            this.minimumBid = minimumBid;
+            this.currentBid = currentBid;
+            this.currentBidder = EvmAddress.normalise(currentBidder);
+            this.nftId = nftId;
+            this.linearId = linearId;
+            this.sender = sender;
+            this.receiver = receiver;
+            this.auctionEnd = auctionEnd;
+        }
+
+        // Default constructor required by hibernate.
+        public PersistentNftState() {
+            this.bidNumber = 0;
+            this.auctionEnded = false;
+            this.minimumBid = null;
+            this.currentBid = null;
+            this.currentBidder = null;
+            this.nftId = null;
+            this.linearId = null;
+            this.sender = null;
+            this.receiver = null;
+            this.auctionEnd = null;
+        }
+
+        public int getBidNumber() {
+            return bidNumber;
+        }
+
+        public boolean isAuctionEnded() {
+            return auctionEnded;
+        }
+
+        public BigDecimal getMinimumBid() {
+            return minimumBid;
+        }
+
+        public BigDecimal getCurrentBid() {
+            return currentBid;
+        }
+
+        public String getCurrentBidder() {
+            return currentBidder;
+        }
+
+        public String getNftId() {
+            return nftId;
+        }
+
+        public String getSender() {
+            return sender;
+        }
+
+        public String getReceiver() {
+            return receiver;
+        }
+
+        public UUID getLinearId() {
+            return linearId;
+        }
+
+        public Instant getAuctionEnd() {
+            return auctionEnd;
+        }
+    }
+}
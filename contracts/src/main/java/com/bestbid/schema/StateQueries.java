@@ -0,0 +1,109 @@
+package com.bestbid.schema;
+
+import com.bestbid.states.EvmAddress;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.Builder;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.core.node.services.vault.SortAttribute;
+import net.corda.core.schemas.StatePersistable;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Vault query criteria over the numeric columns of {@link NftStateSchemaV2} and {@link AccountsFundsStateSchemaV2},
+ * so range filters, sorting and limits run inside the database.
+ *
+ * NFTs and the coins of an address are looked up on the indexed nft_id and evm_address columns of
+ * {@link NftStateSchemaV1} and {@link AccountsFundsStateSchemaV1}. Every state ever recorded has a row there, those
+ * recorded before the states were linear included, which have no row in vault_linear_states.
+ */
+public final class StateQueries {
+
+    private StateQueries() {
+    }
+
+    public static QueryCriteria nftById(String nftId) {
+        Field id = field(NftStateSchemaV1.PersistentNftState.class, "nftId");
+        return new QueryCriteria.VaultCustomQueryCriteria(Builder.equal(id, nftId));
+    }
+
+    /**
+     * The unconsumed NftStates of any of the ids, in a single query.
+     */
+    public static QueryCriteria nftsByIds(Collection<String> nftIds) {
+        Field id = field(NftStateSchemaV1.PersistentNftState.class, "nftId");
+        return new QueryCriteria.VaultCustomQueryCriteria(Builder.in(id, new ArrayList<>(nftIds)));
+    }
+
+    /**
+     * Every unconsumed AccountsFundsState ("coin") of the address. Their funds must be added up to get the balance of
+     * the address.
+     */
+    public static QueryCriteria coinsByAddress(String evmAddress) {
+        Field address = field(AccountsFundsStateSchemaV1.PersistentAccountsFundsState.class, "evmAddress");
+        return new QueryCriteria.VaultCustomQueryCriteria(Builder.equal(address, EvmAddress.normalise(evmAddress)));
+    }
+
+    public static QueryCriteria nftsWithCurrentBidAbove(BigDecimal amount) {
+        Field currentBid = field(NftStateSchemaV2.PersistentNftState.class, "currentBid");
+        return unconsumed().and(new QueryCriteria.VaultCustomQueryCriteria(Builder.greaterThan(currentBid, amount)));
+    }
+
+    public static Sort byCurrentBidDescending() {
+        return nftsSortedBy("currentBid", Sort.Direction.DESC);
+    }
+
+    /**
+     * @param column a field of {@link NftStateSchemaV2.PersistentNftState}, e.g. nftId, currentBid or bidNumber.
+     */
+    public static Sort nftsSortedBy(String column, Sort.Direction direction) {
+        return sortedBy(NftStateSchemaV2.PersistentNftState.class, column, direction);
+    }
+
+    /**
+     * @param column a field of {@link AccountsFundsStateSchemaV2.PersistentAccountsFundsState}, e.g. evmAddress or funds.
+     */
+    public static Sort accountsSortedBy(String column, Sort.Direction direction) {
+        return sortedBy(AccountsFundsStateSchemaV2.PersistentAccountsFundsState.class, column, direction);
+    }
+
+    /**
+     * A total order of the states, so paging through a query neither repeats nor skips any of them.
+     */
+    public static Sort byStateRef() {
+        return new Sort(Arrays.asList(
+                new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_TXN_ID),
+                        Sort.Direction.ASC),
+                new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_INDEX),
+                        Sort.Direction.ASC)));
+    }
+
+    public static PageSpecification first(int amount) {
+        return new PageSpecification(1, amount);
+    }
+
+    public static QueryCriteria unconsumed() {
+        return new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED);
+    }
+
+    private static Sort sortedBy(Class<? extends StatePersistable> entity, String column, Sort.Direction direction) {
+        field(entity, column);
+        Sort.SortColumn sortColumn = new Sort.SortColumn(new SortAttribute.Custom(entity, column), direction);
+        return new Sort(Collections.singletonList(sortColumn));
+    }
+
+    private static Field field(Class<?> entity, String name) {
+        try {
+            return entity.getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException(name + " field not found on " + entity.getSimpleName());
+        }
+    }
+}
@@ -2,24 +2,26 @@ package com.bestbid.states;
 
 import com.bestbid.contracts.AccountsFundsContract;
 import com.bestbid.schema.AccountsFundsStateSchemaV1;
+import com.bestbid.schema.AccountsFundsStateSchemaV2;
 import net.corda.core.contracts.BelongsToContract;
-import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.LinearState;
 import net.corda.core.contracts.UniqueIdentifier;
 import net.corda.core.identity.AbstractParty;
 import net.corda.core.identity.Party;
 import net.corda.core.schemas.MappedSchema;
 import net.corda.core.schemas.PersistentState;
 import net.corda.core.schemas.QueryableState;
+import net.corda.core.serialization.ConstructorForDeserialization;
+import net.corda.core.serialization.DeprecatedConstructorForDeserialization;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 
 @BelongsToContract(AccountsFundsContract.class)
-public class AccountsFundsState implements ContractState, QueryableState {
+public class AccountsFundsState implements LinearState, QueryableState {
 
     private final AccountsFundsStateTxType type;
     private final BigDecimal funds;
@@ -28,13 +30,36 @@ public class AccountsFundsState implements ContractState, QueryableState {
     private final Party receiver;
     private final UniqueIdentifier linearId;
 
+    /**
+     * Reads the states recorded before AccountsFundsState was a linear state. An address only had one state back
+     * then, so its linearId is derived from the normalised address and stays the same every time it is read.
+     *
+     * New coins are opened with {@link #newCoin}, which gives each of them its own linearId.
+     */
+    @DeprecatedConstructorForDeserialization(version = 1)
     public AccountsFundsState(AccountsFundsStateTxType type, BigDecimal funds, String evmAddress, Party sender, Party receiver) {
+        this(type, funds, evmAddress, sender, receiver, LinearIds.of(EvmAddress.normalise(evmAddress)));
+    }
+
+    @ConstructorForDeserialization
+    public AccountsFundsState(AccountsFundsStateTxType type, BigDecimal funds, String evmAddress, Party sender, Party receiver,
+                              UniqueIdentifier linearId) {
         this.type = type;
         this.funds = funds;
-        this.evmAddress = evmAddress;
+        this.evmAddress = EvmAddress.normalise(evmAddress);
         this.sender = sender;
         this.receiver = receiver;
-        this.linearId = new UniqueIdentifier();
+        this.linearId = linearId;
+    }
+
+    /**
+     * Opens a new coin of the address. Every coin is its own linear chain, so it gets a fresh linearId whose external
+     * id is the normalised address. Later evolutions of the coin must keep it, see the constructor taking a linearId.
+     */
+    public static AccountsFundsState newCoin(AccountsFundsStateTxType type, BigDecimal funds, String evmAddress,
+                                             Party sender, Party receiver) {
+        return new AccountsFundsState(type, funds, evmAddress, sender, receiver,
+                new UniqueIdentifier(EvmAddress.normalise(evmAddress)));
     }
 
     @Override
@@ -52,6 +77,14 @@ public class AccountsFundsState implements ContractState, QueryableState {
                     this.sender.getName().toString(),
                     this.receiver.getName().toString(),
                     this.linearId.getId());
+        } else if (schema instanceof AccountsFundsStateSchemaV2) {
+            return new AccountsFundsStateSchemaV2.PersistentAccountsFundsState(
+                    this.type.getName(),
+                    this.evmAddress,
+                    this.funds,
+                    this.sender.getName().toString(),
+                    this.receiver.getName().toString(),
+                    this.linearId.getId());
         } else {
             throw new IllegalArgumentException("Unrecognised schema $schema");
         }
@@ -59,7 +92,7 @@ public class AccountsFundsState implements ContractState, QueryableState {
 
     @Override
     public Iterable<MappedSchema> supportedSchemas() {
-        return Collections.singletonList(new AccountsFundsStateSchemaV1());
+        return Arrays.asList(new AccountsFundsStateSchemaV1(), new AccountsFundsStateSchemaV2());
     }
 
     public BigDecimal getFunds() {
@@ -83,6 +116,7 @@ public class AccountsFundsState implements ContractState, QueryableState {
         return receiver;
     }
 
+    @Override
     public UniqueIdentifier getLinearId() {
         return linearId;
     }
@@ -6,7 +6,8 @@ import net.corda.core.serialization.CordaSerializable;
 public enum AccountsFundsStateTxType {
     NEW_FUNDS("NEW_FUNDS"),
     NEW_BID("NEW_BID"),
-    BID_OVERTAKEN("BID_OVERTAKEN");
+    BID_OVERTAKEN("BID_OVERTAKEN"),
+    FUNDS_MERGED("FUNDS_MERGED");
 
     private String name;
 
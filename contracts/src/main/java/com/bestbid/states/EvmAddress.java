@@ -0,0 +1,17 @@
+package com.bestbid.states;
+
+import java.util.Locale;
+
+/**
+ * EVM addresses are case insensitive, so they are always stored in their lowercase form. This way they can be
+ * matched with a plain (indexed) equality instead of a case insensitive scan.
+ */
+public final class EvmAddress {
+
+    private EvmAddress() {
+    }
+
+    public static String normalise(String address) {
+        return address == null ? null : address.trim().toLowerCase(Locale.ROOT);
+    }
+}
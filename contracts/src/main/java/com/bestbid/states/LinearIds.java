@@ -0,0 +1,20 @@
+package com.bestbid.states;
+
+import net.corda.core.contracts.UniqueIdentifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * The linearId of an auction, or of an account recorded before it was a linear state, is derived from its nftId or
+ * address, so the states recorded before they were linear states get the same linearId every time they are read.
+ */
+final class LinearIds {
+
+    private LinearIds() {
+    }
+
+    static UniqueIdentifier of(String externalId) {
+        return new UniqueIdentifier(externalId, UUID.nameUUIDFromBytes(externalId.getBytes(StandardCharsets.UTF_8)));
+    }
+}
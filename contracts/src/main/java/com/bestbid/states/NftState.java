@@ -2,23 +2,36 @@ package com.bestbid.states;
 
 import com.bestbid.contracts.NftContract;
 import com.bestbid.schema.NftStateSchemaV1;
+import com.bestbid.schema.NftStateSchemaV2;
 import net.corda.core.contracts.BelongsToContract;
-import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.LinearState;
+import net.corda.core.contracts.SchedulableState;
+import net.corda.core.contracts.ScheduledActivity;
+import net.corda.core.contracts.StateRef;
 import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.flows.FlowLogicRefFactory;
 import net.corda.core.identity.AbstractParty;
 import net.corda.core.identity.Party;
 import net.corda.core.schemas.MappedSchema;
 import net.corda.core.schemas.PersistentState;
 import net.corda.core.schemas.QueryableState;
+import net.corda.core.serialization.ConstructorForDeserialization;
+import net.corda.core.serialization.DeprecatedConstructorForDeserialization;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
+/**
+ * An auction of a NFT. When it has an auctionEnd the nodes schedule EndAuctionFlow at that time, and bids must be
+ * notarised before it (see NftContract).
+ */
 @BelongsToContract(NftContract.class)
-public class NftState implements ContractState, QueryableState {
+public class NftState implements LinearState, QueryableState, SchedulableState {
 
     private final int bidNumber;
     private final boolean auctionEnded;
@@ -28,19 +41,52 @@ public class NftState implements ContractState, QueryableState {
     private final String nftId;
     private final Party sender;
     private final Party receiver;
+    private final Instant auctionEnd;
     private final UniqueIdentifier linearId;
 
+    /**
+     * Starts a new auction without end time, its linearId is derived from the nftId. Later evolutions of the auction
+     * must keep it, see the constructor taking a linearId.
+     *
+     * It also reads the states recorded before NftState was a linear state, they get the same derived linearId.
+     */
+    @DeprecatedConstructorForDeserialization(version = 1)
     public NftState(int bidNumber, boolean auctionEnded, BigDecimal minimumBid, BigDecimal currentBid, String currentBidder,
                     String nftId, Party sender, Party receiver) {
+        this(bidNumber, auctionEnded, minimumBid, currentBid, currentBidder, nftId, sender, receiver, (Instant) null);
+    }
+
+    /**
+     * Starts a new auction ending at auctionEnd, or never when it is null.
+     */
+    public NftState(int bidNumber, boolean auctionEnded, BigDecimal minimumBid, BigDecimal currentBid, String currentBidder,
+                    String nftId, Party sender, Party receiver, Instant auctionEnd) {
+        this(bidNumber, auctionEnded, minimumBid, currentBid, currentBidder, nftId, sender, receiver, auctionEnd,
+                LinearIds.of(nftId));
+    }
+
+    /**
+     * Reads the states recorded before auctions had an end time.
+     */
+    @DeprecatedConstructorForDeserialization(version = 2)
+    public NftState(int bidNumber, boolean auctionEnded, BigDecimal minimumBid, BigDecimal currentBid, String currentBidder,
+                    String nftId, Party sender, Party receiver, UniqueIdentifier linearId) {
+        this(bidNumber, auctionEnded, minimumBid, currentBid, currentBidder, nftId, sender, receiver, null, linearId);
+    }
+
+    @ConstructorForDeserialization
+    public NftState(int bidNumber, boolean auctionEnded, BigDecimal minimumBid, BigDecimal currentBid, String currentBidder,
+                    String nftId, Party sender, Party receiver, Instant auctionEnd, UniqueIdentifier linearId) {
         this.bidNumber = bidNumber;
         this.auctionEnded = auctionEnded;
         this.minimumBid = minimumBid;
         this.currentBid = currentBid;
-        this.currentBidder = currentBidder;
+        this.currentBidder = EvmAddress.normalise(currentBidder);
         this.nftId = nftId;
         this.sender = sender;
         this.receiver = receiver;
-        this.linearId = new UniqueIdentifier();
+        this.auctionEnd = auctionEnd;
+        this.linearId = linearId;
     }
 
     @NotNull
@@ -63,6 +109,18 @@ public class NftState implements ContractState, QueryableState {
                     this.linearId.getId(),
                     this.sender.getName().toString(),
                     this.receiver.getName().toString());
+        } else if (schema instanceof NftStateSchemaV2) {
+            return new NftStateSchemaV2.PersistentNftState(
+                    this.bidNumber,
+                    this.auctionEnded,
+                    this.minimumBid,
+                    this.currentBid,
+                    this.currentBidder,
+                    this.nftId,
+                    this.linearId.getId(),
+                    this.sender.getName().toString(),
+                    this.receiver.getName().toString(),
+                    this.auctionEnd);
         } else {
             throw new IllegalArgumentException("Unrecognised schema $schema");
         }
@@ -71,7 +129,22 @@ public class NftState implements ContractState, QueryableState {
     @NotNull
     @Override
     public Iterable<MappedSchema> supportedSchemas() {
-        return Collections.singletonList(new NftStateSchemaV1());
+        return Arrays.asList(new NftStateSchemaV1(), new NftStateSchemaV2());
+    }
+
+    /**
+     * The flow is resolved by name because it lives in the workflows module. Every evolution of the auction
+     * reschedules it, and ending the auction cancels it.
+     */
+    @Nullable
+    @Override
+    public ScheduledActivity nextScheduledActivity(@NotNull StateRef thisStateRef,
+                                                   @NotNull FlowLogicRefFactory flowLogicRefFactory) {
+        if (auctionEnd == null || auctionEnded) {
+            return null;
+        }
+        return new ScheduledActivity(
+                flowLogicRefFactory.create("com.bestbid.flows.EndAuctionFlow$Scheduled", thisStateRef), auctionEnd);
     }
 
     public int getBidNumber() {
@@ -106,6 +179,12 @@ public class NftState implements ContractState, QueryableState {
         return receiver;
     }
 
+    public Instant getAuctionEnd() {
+        return auctionEnd;
+    }
+
+    @NotNull
+    @Override
     public UniqueIdentifier getLinearId() {
         return linearId;
     }
@@ -125,6 +204,7 @@ public class NftState implements ContractState, QueryableState {
             return false;
         if (!nftId.equals(nftState.nftId)) return false;
         if (!sender.equals(nftState.sender)) return false;
+        if (!Objects.equals(auctionEnd, nftState.auctionEnd)) return false;
         return receiver.equals(nftState.receiver);
     }
 
@@ -138,6 +218,7 @@ public class NftState implements ContractState, QueryableState {
         result = 31 * result + nftId.hashCode();
         result = 31 * result + sender.hashCode();
         result = 31 * result + receiver.hashCode();
+        result = 31 * result + Objects.hashCode(auctionEnd);
         return result;
     }
 }
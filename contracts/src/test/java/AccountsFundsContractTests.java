@@ -2,14 +2,22 @@ import com.bestbid.contracts.AccountsFundsContract;
 import com.bestbid.contracts.NftContract;
 import com.bestbid.states.AccountsFundsState;
 import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.EvmAddress;
 import com.bestbid.states.NftState;
+import net.corda.core.contracts.TimeWindow;
+import net.corda.core.contracts.UniqueIdentifier;
 import net.corda.core.identity.CordaX500Name;
 import net.corda.testing.core.TestIdentity;
+import net.corda.testing.dsl.TransactionDSL;
+import net.corda.testing.dsl.TransactionDSLInterpreter;
 import net.corda.testing.node.MockServices;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static net.corda.testing.node.NodeTestUtils.transaction;
 
@@ -27,6 +35,7 @@ public class AccountsFundsContractTests {
     private final AccountsFundsStateTxType NEW_FUNDS = AccountsFundsStateTxType.NEW_FUNDS;
     private final AccountsFundsStateTxType NEW_BID = AccountsFundsStateTxType.NEW_BID;
     private final AccountsFundsStateTxType BID_OVERTAKEN = AccountsFundsStateTxType.BID_OVERTAKEN;
+    private final AccountsFundsStateTxType FUNDS_MERGED = AccountsFundsStateTxType.FUNDS_MERGED;
 
     private final String accountOneAddress = "0x0KLJH234978YFSLKJ4";
     private final String accountTwoAddress = "0x030FF76FFDV3T2T8FA";
@@ -94,6 +103,85 @@ public class AccountsFundsContractTests {
         });
     }
 
+    @Test
+    public void givenAnAuctionWithAnEndTime_whenBiddingBeforeTheEnd_shouldNotThrowErrors() {
+        Instant auctionEnd = Instant.parse("2030-01-01T12:00:00Z");
+        transaction(ledgerServices, tx -> {
+            addFirstBidOnAuctionEndingAt(tx, auctionEnd);
+            tx.timeWindow(TimeWindow.untilOnly(auctionEnd));
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void givenAnAuctionWithAnEndTime_whenBiddingAfterTheEnd_shouldThrowError() {
+        Instant auctionEnd = Instant.parse("2030-01-01T12:00:00Z");
+        transaction(ledgerServices, tx -> {
+            addFirstBidOnAuctionEndingAt(tx, auctionEnd);
+            tx.timeWindow(TimeWindow.untilOnly(auctionEnd.plusSeconds(1)));
+            tx.failsWith("You can't make a bid after the end of the auction.");
+            return null;
+        });
+    }
+
+    @Test
+    public void givenAnAuctionWithAnEndTime_whenBiddingWithoutTimeWindow_shouldThrowError() {
+        transaction(ledgerServices, tx -> {
+            addFirstBidOnAuctionEndingAt(tx, Instant.parse("2030-01-01T12:00:00Z"));
+            tx.failsWith("A bid on an auction with an end time must have a time window.");
+            return null;
+        });
+    }
+
+    @Test
+    public void whenABidChangesTheLinearIdOfTheAuction_shouldThrowError() {
+        transaction(ledgerServices, tx -> {
+            tx.input(NftContract.ID, new NftState(0, false, BigDecimal.ONE, BigDecimal.ZERO, "", "1", sender.getParty(),
+                    receiver.getParty()));
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(NftContract.ID, new NftState(1, false, BigDecimal.ONE, BigDecimal.TEN, accountOneAddress, "1",
+                    sender.getParty(), receiver.getParty(), null, new UniqueIdentifier("1")));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_BID, BigDecimal.ZERO, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(), new AccountsFundsContract.Commands.MakeBid(BigDecimal.TEN));
+            tx.failsWith("The auction must keep its linearId, NftId and minimum bid.");
+            return null;
+        });
+    }
+
+    @Test
+    public void whenABidChangesTheMinimumBidOfTheAuction_shouldThrowError() {
+        transaction(ledgerServices, tx -> {
+            tx.input(NftContract.ID, new NftState(0, false, BigDecimal.TEN, BigDecimal.ZERO, "", "1", sender.getParty(),
+                    receiver.getParty()));
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(NftContract.ID, new NftState(1, false, BigDecimal.ONE, BigDecimal.TEN, accountOneAddress, "1",
+                    sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_BID, BigDecimal.ZERO, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(), new AccountsFundsContract.Commands.MakeBid(BigDecimal.TEN));
+            tx.failsWith("The auction must keep its linearId, NftId and minimum bid.");
+            return null;
+        });
+    }
+
+    @Test
+    public void whenEndingAnAuctionChangesItsNftId_shouldThrowError() {
+        transaction(ledgerServices, tx -> {
+            NftState input = new NftState(1, false, BigDecimal.ONE, BigDecimal.TEN, accountOneAddress, "1",
+                    sender.getParty(), receiver.getParty());
+            tx.input(NftContract.ID, input);
+            tx.output(NftContract.ID, new NftState(1, true, BigDecimal.ONE, BigDecimal.TEN, accountOneAddress, "2",
+                    sender.getParty(), receiver.getParty(), null, input.getLinearId()));
+            tx.command(sender.getParty().getOwningKey(), new NftContract.Commands.EndAuction());
+            tx.failsWith("The auction must keep its linearId, NftId and minimum bid.");
+            return null;
+        });
+    }
+
     @Test
     public void givenCorrectInfo_whenSecondBidding_shouldNotThrowErrors() {
         transaction(ledgerServices, tx -> {
@@ -114,4 +202,153 @@ public class AccountsFundsContractTests {
             return null;
         });
     }
+
+    @Test
+    public void givenCorrectInfo_whenMakingABatchedBid_shouldNotThrowErrors() {
+        transaction(ledgerServices, tx -> {
+            tx.input(NftContract.ID, new NftState(0, false, BigDecimal.ONE, BigDecimal.ZERO, "", "1", sender.getParty(),
+                    receiver.getParty()));
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(NftContract.ID, new NftState(1, false, BigDecimal.ONE, BigDecimal.TEN, accountOneAddress, "1",
+                    sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_BID, BigDecimal.ZERO, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(),
+                    new AccountsFundsContract.Commands.MakeBatchedBid(BigDecimal.TEN, 2, new BigDecimal("9")));
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void whenAddingFundsDoesntAddUpWithTheToppedUpState_shouldThrowError() {
+        transaction(ledgerServices, tx -> {
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(), new AccountsFundsContract.Commands.AddFunds(BigDecimal.ONE));
+            tx.failsWith("The output state must hold the funds of the topped up state plus the amount added");
+            return null;
+        });
+    }
+
+    @Test
+    public void givenCorrectInfo_whenBiddingWithSeveralCoins_shouldNotThrowErrors() {
+        transaction(ledgerServices, tx -> {
+            tx.input(NftContract.ID, new NftState(1, false, BigDecimal.ONE, BigDecimal.ONE, accountOneAddress, "1",
+                    sender.getParty(), receiver.getParty()));
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountTwoAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountTwoAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(NftContract.ID, new NftState(2, false, BigDecimal.ONE, new BigDecimal("15"), accountTwoAddress,
+                    "1", sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_BID, new BigDecimal("5"), accountTwoAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(BID_OVERTAKEN, BigDecimal.ONE, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(),
+                    new AccountsFundsContract.Commands.MakeBid(new BigDecimal("15")));
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void whenTheChangeOfTheBidderDoesntAddUp_shouldThrowError() {
+        transaction(ledgerServices, tx -> {
+            tx.input(NftContract.ID, new NftState(0, false, BigDecimal.ONE, BigDecimal.ZERO, "", "1", sender.getParty(),
+                    receiver.getParty()));
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(NftContract.ID, new NftState(1, false, BigDecimal.ONE, BigDecimal.TEN, accountOneAddress, "1",
+                    sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_BID, BigDecimal.ZERO, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(), new AccountsFundsContract.Commands.MakeBid(BigDecimal.TEN));
+            tx.failsWith("Outputted AccountsFundsState from bidder must have funds equal to old funds minus amount bidded");
+            return null;
+        });
+    }
+
+    @Test
+    public void givenCorrectInfo_whenMergingFunds_shouldNotThrowErrors() {
+        transaction(ledgerServices, tx -> {
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(BID_OVERTAKEN, BigDecimal.ONE, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(FUNDS_MERGED, new BigDecimal("11"),
+                    accountOneAddress, sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(), new AccountsFundsContract.Commands.MergeFunds());
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void whenMergingFundsOfDifferentAddresses_shouldThrowError() {
+        transaction(ledgerServices, tx -> {
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.ONE, accountTwoAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(FUNDS_MERGED, new BigDecimal("11"),
+                    accountOneAddress, sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(), new AccountsFundsContract.Commands.MergeFunds());
+            tx.failsWith("Only AccountsFundsStates of the same address can be merged");
+            return null;
+        });
+    }
+
+    @Test
+    public void givenCorrectInfo_whenBulkAddingFunds_shouldNotThrowErrors() {
+        transaction(ledgerServices, tx -> {
+            tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, new BigDecimal("11"),
+                    accountOneAddress, sender.getParty(), receiver.getParty()));
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountTwoAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(), new AccountsFundsContract.Commands.BulkAddFunds(
+                    amountsOfBothAccounts(BigDecimal.ONE, BigDecimal.TEN)));
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void whenBulkAddingFundsSkipsAnAddress_shouldThrowError() {
+        transaction(ledgerServices, tx -> {
+            tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                    sender.getParty(), receiver.getParty()));
+            tx.command(sender.getParty().getOwningKey(), new AccountsFundsContract.Commands.BulkAddFunds(
+                    amountsOfBothAccounts(BigDecimal.TEN, BigDecimal.TEN)));
+            tx.failsWith("A bulk deposit must generate one and only one output state per address");
+            return null;
+        });
+    }
+
+    private Map<String, BigDecimal> amountsOfBothAccounts(BigDecimal accountOneAmount, BigDecimal accountTwoAmount) {
+        Map<String, BigDecimal> amounts = new LinkedHashMap<>();
+        amounts.put(EvmAddress.normalise(accountOneAddress), accountOneAmount);
+        amounts.put(EvmAddress.normalise(accountTwoAddress), accountTwoAmount);
+        return amounts;
+    }
+
+    private void addFirstBidOnAuctionEndingAt(TransactionDSL<TransactionDSLInterpreter> tx, Instant auctionEnd) {
+        tx.input(NftContract.ID, new NftState(0, false, BigDecimal.ONE, BigDecimal.ZERO, "", "1", sender.getParty(),
+                receiver.getParty(), auctionEnd));
+        tx.input(AccountsFundsContract.ID, new AccountsFundsState(NEW_FUNDS, BigDecimal.TEN, accountOneAddress,
+                sender.getParty(), receiver.getParty()));
+        tx.output(NftContract.ID, new NftState(1, false, BigDecimal.ONE, BigDecimal.TEN, accountOneAddress, "1",
+                sender.getParty(), receiver.getParty(), auctionEnd));
+        tx.output(AccountsFundsContract.ID, new AccountsFundsState(NEW_BID, BigDecimal.ZERO, accountOneAddress,
+                sender.getParty(), receiver.getParty()));
+        tx.command(sender.getParty().getOwningKey(), new AccountsFundsContract.Commands.MakeBid(BigDecimal.TEN));
+    }
 }
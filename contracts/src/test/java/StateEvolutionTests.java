@@ -0,0 +1,129 @@
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.EvmAddress;
+import com.bestbid.states.NftState;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.serialization.SerializationDefaults;
+import net.corda.core.serialization.SerializedBytes;
+import net.corda.serialization.internal.AllWhitelist;
+import net.corda.serialization.internal.amqp.SerializationOutput;
+import net.corda.serialization.internal.amqp.SerializerFactoryBuilder;
+import net.corda.serialization.internal.carpenter.CarpenterSchemaFactory;
+import net.corda.serialization.internal.carpenter.ClassCarpenterImpl;
+import net.corda.serialization.internal.carpenter.Field;
+import net.corda.serialization.internal.carpenter.NonNullableField;
+import net.corda.serialization.internal.carpenter.NullableField;
+import net.corda.serialization.internal.carpenter.Schema;
+import net.corda.testing.core.SerializationEnvironmentRule;
+import net.corda.testing.core.TestIdentity;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reads states in the form they were recorded before they were linear states. That form is rebuilt by carpenting a
+ * class with the same name and the properties the states had back then, and serialising an instance of it.
+ */
+public class StateEvolutionTests {
+
+    @Rule
+    public final SerializationEnvironmentRule testSerialization = new SerializationEnvironmentRule();
+
+    private final Party sender = new TestIdentity(new CordaX500Name("PartyA", "London", "GB")).getParty();
+    private final Party receiver = new TestIdentity(new CordaX500Name("PartyC", "Sydney", "AU")).getParty();
+
+    @Test
+    public void whenReadingABaselineNftState_shouldDeriveItsLinearIdFromTheNftId() throws Exception {
+        //arrange
+        Map<String, Field> fields = new LinkedHashMap<>();
+        fields.put("bidNumber", new NonNullableField(Integer.TYPE));
+        fields.put("auctionEnded", new NonNullableField(Boolean.TYPE));
+        fields.put("minimumBid", new NullableField(BigDecimal.class));
+        fields.put("currentBid", new NullableField(BigDecimal.class));
+        fields.put("currentBidder", new NullableField(String.class));
+        fields.put("nftId", new NullableField(String.class));
+        fields.put("sender", new NullableField(Party.class));
+        fields.put("receiver", new NullableField(Party.class));
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("bidNumber", 1);
+        values.put("auctionEnded", false);
+        values.put("minimumBid", BigDecimal.ONE);
+        values.put("currentBid", BigDecimal.TEN);
+        values.put("currentBidder", "0x0KLJH234978YFSLKJ4");
+        values.put("nftId", "1");
+        values.put("sender", sender);
+        values.put("receiver", receiver);
+
+        //act
+        NftState state = deserialize(serializeBaseline(NftState.class.getName(), fields, values), NftState.class);
+        NftState readAgain = deserialize(serializeBaseline(NftState.class.getName(), fields, values), NftState.class);
+
+        //assert
+        assertEquals(new NftState(1, false, BigDecimal.ONE, BigDecimal.TEN, "0x0KLJH234978YFSLKJ4", "1", sender,
+                receiver), state);
+        assertNotNull(state.getLinearId());
+        assertEquals("1", state.getLinearId().getExternalId());
+        assertEquals(state.getLinearId(), readAgain.getLinearId());
+        assertNull(state.getAuctionEnd());
+    }
+
+    @Test
+    public void whenReadingABaselineAccountsFundsState_shouldDeriveItsLinearIdFromTheAddress() throws Exception {
+        //arrange
+        Map<String, Field> fields = new LinkedHashMap<>();
+        fields.put("type", new NullableField(AccountsFundsStateTxType.class));
+        fields.put("funds", new NullableField(BigDecimal.class));
+        fields.put("evmAddress", new NullableField(String.class));
+        fields.put("sender", new NullableField(Party.class));
+        fields.put("receiver", new NullableField(Party.class));
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("type", AccountsFundsStateTxType.NEW_FUNDS);
+        values.put("funds", BigDecimal.TEN);
+        values.put("evmAddress", "0x0KLJH234978YFSLKJ4");
+        values.put("sender", sender);
+        values.put("receiver", receiver);
+
+        //act
+        AccountsFundsState state = deserialize(serializeBaseline(AccountsFundsState.class.getName(), fields, values),
+                AccountsFundsState.class);
+
+        //assert
+        assertEquals(new AccountsFundsState(AccountsFundsStateTxType.NEW_FUNDS, BigDecimal.TEN, "0x0KLJH234978YFSLKJ4",
+                sender, receiver), state);
+        assertNotNull(state.getLinearId());
+        assertEquals(EvmAddress.normalise("0x0KLJH234978YFSLKJ4"), state.getLinearId().getExternalId());
+        assertEquals(new AccountsFundsState(AccountsFundsStateTxType.NEW_FUNDS, BigDecimal.ONE, "0x0KLJH234978YFSLKJ4",
+                sender, receiver).getLinearId(), state.getLinearId());
+    }
+
+    private SerializedBytes<Object> serializeBaseline(String className, Map<String, Field> fields,
+                                                      Map<String, Object> values) throws Exception {
+        ClassCarpenterImpl carpenter = new ClassCarpenterImpl(AllWhitelist.INSTANCE, getClass().getClassLoader(), false);
+        Schema schema = CarpenterSchemaFactory.INSTANCE.newInstance(className, fields, null, Collections.emptyList(),
+                false);
+        Class<?> baselineClass = carpenter.build(schema);
+
+        List<Object> arguments = new ArrayList<>();
+        for (String property : schema.getFields().keySet()) {
+            arguments.add(values.get(property));
+        }
+        Object baseline = baselineClass.getConstructors()[0].newInstance(arguments.toArray());
+
+        return new SerializationOutput(SerializerFactoryBuilder.build(AllWhitelist.INSTANCE, carpenter.getClassloader()))
+                .serialize(baseline, SerializationDefaults.INSTANCE.getSTORAGE_CONTEXT());
+    }
+
+    private <T> T deserialize(SerializedBytes<Object> bytes, Class<T> type) {
+        return SerializationDefaults.INSTANCE.getSERIALIZATION_FACTORY().deserialize(bytes, type,
+                SerializationDefaults.INSTANCE.getSTORAGE_CONTEXT());
+    }
+}
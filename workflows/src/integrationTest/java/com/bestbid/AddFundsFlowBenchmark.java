@@ -0,0 +1,120 @@
+package com.bestbid;
+
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the latency of a deposit to an existing account while the amount of accounts in the vault grows.
+ *
+ * Accounts are recorded straight into the vaults of both nodes, in transactions of SEED_BATCH outputs, so seeding
+ * does not go through the flows. The account amounts can be changed with -Dbenchmark.accounts (defaults to
+ * 1000,10000).
+ */
+public class AddFundsFlowBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(AddFundsFlowBenchmark.class);
+
+    private static final List<Integer> ACCOUNT_AMOUNTS = Arrays.stream(
+            System.getProperty("benchmark.accounts", "1000,10000").split(","))
+            .map(Integer::parseInt).collect(Collectors.toList());
+    private static final int SEED_BATCH = 1000;
+    private static final int DEPOSITS = 50;
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final StartedMockNode responder;
+    private final Party partyInitiator;
+    private final Party partyResponder;
+    private int seededAccounts = 0;
+
+    public AddFundsFlowBenchmark() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        this.responder = network.createNode();
+        this.partyInitiator = initiator.getInfo().getLegalIdentities().get(0);
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void depositLatencyPerAmountOfAccounts() throws Exception {
+        Random random = new Random(42);
+        for (int accounts : ACCOUNT_AMOUNTS) {
+            seedAccountsUpTo(accounts);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < DEPOSITS; i++) {
+                String address = address(random.nextInt(accounts));
+                AddFundsFlow.Initiator flow = new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "10",
+                        address, partyResponder);
+                SignedTransaction stx = startAndRun(flow);
+                assertEquals(1, stx.getTx().getInputs().size());
+            }
+            long averageMicros = (System.nanoTime() - start) / DEPOSITS / 1_000;
+
+            logger.info("accounts={} avgDepositLatency={}us", accounts, averageMicros);
+        }
+    }
+
+    private SignedTransaction startAndRun(AddFundsFlow.Initiator flow) throws Exception {
+        CordaFuture<SignedTransaction> future = initiator.startFlow(flow);
+        network.runNetwork();
+        return future.get();
+    }
+
+    private void seedAccountsUpTo(int accounts) {
+        Party notary = network.getDefaultNotaryIdentity();
+        while (seededAccounts < accounts) {
+            TransactionBuilder builder = new TransactionBuilder(notary);
+            int batchEnd = Math.min(accounts, seededAccounts + SEED_BATCH);
+            for (int i = seededAccounts; i < batchEnd; i++) {
+                builder.addOutputState(AccountsFundsState.newCoin(AccountsFundsStateTxType.NEW_FUNDS, new BigDecimal("1000"),
+                        address(i), partyInitiator, partyResponder));
+            }
+            builder.addCommand(new AccountsFundsContract.Commands.AddFunds(BigDecimal.ONE),
+                    partyInitiator.getOwningKey());
+            SignedTransaction stx = initiator.transaction(() -> initiator.getServices().signInitialTransaction(builder));
+            for (StartedMockNode node : Arrays.asList(initiator, responder)) {
+                node.transaction(() -> {
+                    node.getServices().recordTransactions(stx);
+                    return null;
+                });
+            }
+            seededAccounts = batchEnd;
+        }
+    }
+
+    private static String address(int index) {
+        return String.format("0x%040x", index);
+    }
+}
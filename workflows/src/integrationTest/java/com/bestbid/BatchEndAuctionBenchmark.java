@@ -0,0 +1,104 @@
+package com.bestbid;
+
+import com.bestbid.flows.BatchEndAuctionFlow;
+import com.bestbid.flows.EndAuctionFlow;
+import com.bestbid.flows.Nft.BatchIssueNftFlow;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+
+/**
+ * Compares closing the auctions of a drop one EndAuctionFlow at a time with closing all of them with
+ * BatchEndAuctionFlow, in batches, as when every auction of a drop expires at the same moment.
+ *
+ * The amount of auctions and the batch size can be changed with -Dbenchmark.auctions (defaults to 1000) and
+ * -Dbenchmark.batchSize (defaults to 1000).
+ */
+public class BatchEndAuctionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(BatchEndAuctionBenchmark.class);
+
+    private static final int AUCTIONS = Integer.getInteger("benchmark.auctions", 1000);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.batchSize", 1000);
+    private static final int ISSUE_BATCH_SIZE = 500;
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final Party partyResponder;
+
+    public BatchEndAuctionBenchmark() {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void auctionsClosedPerSecond() throws Exception {
+        issueDrop("single");
+        long start = System.nanoTime();
+        for (int i = 0; i < AUCTIONS; i++) {
+            run(new EndAuctionFlow.Initiator(nftId("single", i), partyResponder));
+        }
+        long singleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        issueDrop("batch");
+        start = System.nanoTime();
+        for (int batchStart = 0; batchStart < AUCTIONS; batchStart += BATCH_SIZE) {
+            List<String> nftIds = new ArrayList<>();
+            for (int i = batchStart; i < Math.min(AUCTIONS, batchStart + BATCH_SIZE); i++) {
+                nftIds.add(nftId("batch", i));
+            }
+            run(new BatchEndAuctionFlow.Initiator(nftIds, partyResponder));
+        }
+        long batchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        logger.info("auctions={} single={}ms ({}auctions/s) batchSize={} batch={}ms ({}auctions/s)",
+                AUCTIONS, singleMillis, AUCTIONS * 1000L / Math.max(1, singleMillis),
+                BATCH_SIZE, batchMillis, AUCTIONS * 1000L / Math.max(1, batchMillis));
+    }
+
+    private void issueDrop(String drop) throws Exception {
+        for (int batchStart = 0; batchStart < AUCTIONS; batchStart += ISSUE_BATCH_SIZE) {
+            Map<String, String> minimumBidsByNftId = new LinkedHashMap<>();
+            for (int i = batchStart; i < Math.min(AUCTIONS, batchStart + ISSUE_BATCH_SIZE); i++) {
+                minimumBidsByNftId.put(nftId(drop, i), "10");
+            }
+            run(new BatchIssueNftFlow.Initiator(minimumBidsByNftId, partyResponder));
+        }
+    }
+
+    private void run(FlowLogic<?> flow) throws Exception {
+        CordaFuture<?> future = initiator.startFlow(flow);
+        network.runNetwork();
+        future.get();
+    }
+
+    private static String nftId(String drop, int index) {
+        return drop + "-" + index;
+    }
+}
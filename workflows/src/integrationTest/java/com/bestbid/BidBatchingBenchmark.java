@@ -0,0 +1,119 @@
+package com.bestbid;
+
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.flows.SequencedMakeBidFlow;
+import com.bestbid.services.CordappSettings;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.google.common.collect.ImmutableMap;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+
+/**
+ * Fires bids at a single NFT at a fixed rate through the bid sequencer with batching on, and logs how many bids per
+ * second it settled and how many ledger transactions that took.
+ *
+ * The rate, duration and window can be changed with -Dbenchmark.bidsPerSecond (defaults to 1000),
+ * -Dbenchmark.seconds (defaults to 10) and -Dbenchmark.bidBatchWindowMillis (defaults to 50).
+ */
+public class BidBatchingBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(BidBatchingBenchmark.class);
+
+    private static final int BIDS_PER_SECOND = Integer.getInteger("benchmark.bidsPerSecond", 1000);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+    private static final long WINDOW_MILLIS = Long.getLong("benchmark.bidBatchWindowMillis", 50);
+    private static final int BIDDERS = 1000;
+    private static final String NFT_ID = "hot-drop";
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final StartedMockNode responder;
+    private final Party partyInitiator;
+    private final Party partyResponder;
+
+    public BidBatchingBenchmark() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters(
+                ImmutableMap.of(CordappSettings.BID_BATCH_WINDOW_MILLIS, WINDOW_MILLIS)).withThreadPerNode(true));
+        this.initiator = network.createNode();
+        this.responder = network.createNode();
+        this.partyInitiator = initiator.getInfo().getLegalIdentities().get(0);
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void bidThroughputOnASingleNft() throws Exception {
+        seedBidders();
+        initiator.startFlow(new IssueNftFlow.Initiator("1", NFT_ID, partyResponder)).get(30, TimeUnit.SECONDS);
+
+        int totalBids = BIDS_PER_SECOND * SECONDS;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / BIDS_PER_SECOND;
+        List<CordaFuture<SignedTransaction>> bids = new ArrayList<>(totalBids);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < totalBids; i++) {
+            LockSupport.parkNanos(start + i * intervalNanos - System.nanoTime());
+            bids.add(initiator.startFlow(new SequencedMakeBidFlow(String.valueOf(i + 2), bidder(i % BIDDERS), NFT_ID,
+                    partyResponder)));
+        }
+
+        int recorded = 0;
+        int rejected = 0;
+        for (CordaFuture<SignedTransaction> bid : bids) {
+            try {
+                bid.get();
+                recorded++;
+            } catch (ExecutionException e) {
+                rejected++;
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        logger.info("window={}ms offered={}bids/s bids={} recordedTransactions={} rejectedBids={} elapsed={}ms settled={}bids/s",
+                WINDOW_MILLIS, BIDS_PER_SECOND, totalBids, recorded, rejected, elapsedMillis,
+                totalBids * 1000L / elapsedMillis);
+    }
+
+    private void seedBidders() {
+        TransactionBuilder builder = new TransactionBuilder(network.getDefaultNotaryIdentity());
+        for (int i = 0; i < BIDDERS; i++) {
+            builder.addOutputState(AccountsFundsState.newCoin(AccountsFundsStateTxType.NEW_FUNDS, new BigDecimal("1000000000"),
+                    bidder(i), partyInitiator, partyResponder));
+        }
+        builder.addCommand(new AccountsFundsContract.Commands.AddFunds(BigDecimal.ONE), partyInitiator.getOwningKey());
+        SignedTransaction stx = initiator.transaction(() -> initiator.getServices().signInitialTransaction(builder));
+        for (StartedMockNode node : Arrays.asList(initiator, responder)) {
+            node.transaction(() -> {
+                node.getServices().recordTransactions(stx);
+                return null;
+            });
+        }
+    }
+
+    private static String bidder(int index) {
+        return String.format("0x%040x", index);
+    }
+}
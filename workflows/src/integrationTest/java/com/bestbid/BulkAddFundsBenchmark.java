@@ -0,0 +1,90 @@
+package com.bestbid;
+
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.AccountsFunds.BulkAddFundsFlow;
+import com.bestbid.states.AccountsFundsStateTxType;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+
+/**
+ * Compares the deposits per second of one AddFundsFlow per deposit with BulkAddFundsFlow crediting the same
+ * deposits in batches, as when a block with many deposits is replayed from the bridge.
+ *
+ * The amount of deposits and the batch size can be changed with -Dbenchmark.deposits (defaults to 1000) and
+ * -Dbenchmark.bulkSize (defaults to 100).
+ */
+public class BulkAddFundsBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(BulkAddFundsBenchmark.class);
+
+    private static final int DEPOSITS = Integer.getInteger("benchmark.deposits", 1000);
+    private static final int BULK_SIZE = Integer.getInteger("benchmark.bulkSize", 100);
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final Party partyResponder;
+
+    public BulkAddFundsBenchmark() {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void depositsPerSecond() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < DEPOSITS; i++) {
+            run(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "10", address(i), partyResponder));
+        }
+        long singleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int batchStart = 0; batchStart < DEPOSITS; batchStart += BULK_SIZE) {
+            Map<String, String> fundsByAddress = new LinkedHashMap<>();
+            for (int i = batchStart; i < Math.min(DEPOSITS, batchStart + BULK_SIZE); i++) {
+                fundsByAddress.put(address(i), "10");
+            }
+            run(new BulkAddFundsFlow.Initiator(fundsByAddress, partyResponder));
+        }
+        long bulkMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        logger.info("deposits={} single={}ms ({}deposits/s) bulkSize={} bulk={}ms ({}deposits/s)",
+                DEPOSITS, singleMillis, DEPOSITS * 1000L / Math.max(1, singleMillis),
+                BULK_SIZE, bulkMillis, DEPOSITS * 1000L / Math.max(1, bulkMillis));
+    }
+
+    private void run(FlowLogic<SignedTransaction> flow) throws Exception {
+        CordaFuture<SignedTransaction> future = initiator.startFlow(flow);
+        network.runNetwork();
+        future.get();
+    }
+
+    private static String address(int index) {
+        return String.format("0x%040x", index);
+    }
+}
@@ -0,0 +1,138 @@
+package com.bestbid;
+
+import com.bestbid.contracts.NftContract;
+import com.bestbid.schema.NftStateSchemaV1;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.identity.Party;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.Builder;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares looking up a single NftState by the reflective custom-field query on nft_states with looking it up by the
+ * external id of its linearId on vault_linear_states, while the amount of NFTs in the vault grows.
+ *
+ * NFTs are recorded straight into the vault in transactions of SEED_BATCH outputs. The NFT amounts can be changed
+ * with -Dbenchmark.nfts (defaults to 1000,10000,100000).
+ */
+public class LinearStateLookupBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(LinearStateLookupBenchmark.class);
+
+    private static final List<Integer> NFT_AMOUNTS = Arrays.stream(
+            System.getProperty("benchmark.nfts", "1000,10000,100000").split(","))
+            .map(Integer::parseInt).collect(Collectors.toList());
+    private static final int SEED_BATCH = 1000;
+    private static final int LOOKUPS = 500;
+
+    private final MockNetwork network;
+    private final StartedMockNode node;
+    private final Party partyNode;
+    private final Party partyOther;
+    private int seededNfts = 0;
+
+    public LinearStateLookupBenchmark() {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.node = network.createNode();
+        StartedMockNode other = network.createNode();
+        this.partyNode = node.getInfo().getLegalIdentities().get(0);
+        this.partyOther = other.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void lookupLatencyPerAmountOfNfts() {
+        for (int nfts : NFT_AMOUNTS) {
+            seedNftsUpTo(nfts);
+
+            long customFieldMicros = averageLookupMicros(nfts, LinearStateLookupBenchmark::byCustomField);
+            long linearStateMicros = averageLookupMicros(nfts, LinearStateLookupBenchmark::byExternalId);
+
+            logger.info("nfts={} customFieldLookup={}us linearStateLookup={}us", nfts, customFieldMicros,
+                    linearStateMicros);
+        }
+    }
+
+    private long averageLookupMicros(int nfts, Function<String, QueryCriteria> criteria) {
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            String nftId = nftId(random.nextInt(nfts));
+            List<StateAndRef<NftState>> states = node.transaction(() -> node.getServices().getVaultService()
+                    .queryBy(NftState.class, criteria.apply(nftId)).getStates());
+            assertEquals(1, states.size());
+        }
+        return (System.nanoTime() - start) / LOOKUPS / 1_000;
+    }
+
+    /**
+     * The lookup the flows used before the states were linear.
+     */
+    private static QueryCriteria byExternalId(String nftId) {
+        return new QueryCriteria.LinearStateQueryCriteria(null, null, Collections.singletonList(nftId),
+                Vault.StateStatus.UNCONSUMED);
+    }
+
+    private static QueryCriteria byCustomField(String nftId) {
+        Field nftIdField;
+        try {
+            nftIdField = NftStateSchemaV1.PersistentNftState.class.getDeclaredField("nftId");
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+        return new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED)
+                .and(new QueryCriteria.VaultCustomQueryCriteria(Builder.equal(nftIdField, nftId)));
+    }
+
+    private void seedNftsUpTo(int nfts) {
+        while (seededNfts < nfts) {
+            TransactionBuilder builder = new TransactionBuilder(network.getDefaultNotaryIdentity());
+            int batchEnd = Math.min(nfts, seededNfts + SEED_BATCH);
+            for (int i = seededNfts; i < batchEnd; i++) {
+                builder.addOutputState(new NftState(0, false, BigDecimal.TEN, BigDecimal.ZERO, "", nftId(i),
+                        partyNode, partyOther));
+            }
+            builder.addCommand(new NftContract.Commands.Issue(), partyNode.getOwningKey());
+            node.transaction(() -> {
+                SignedTransaction stx = node.getServices().signInitialTransaction(builder);
+                node.getServices().recordTransactions(stx);
+                return null;
+            });
+            seededNfts = batchEnd;
+        }
+    }
+
+    private static String nftId(int index) {
+        return "nft-" + index;
+    }
+}
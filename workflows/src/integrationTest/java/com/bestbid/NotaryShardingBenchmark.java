@@ -0,0 +1,128 @@
+package com.bestbid;
+
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.flows.MakeBidFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.services.CordappSettings;
+import com.bestbid.services.NotarySelector;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.google.common.collect.ImmutableMap;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+
+/**
+ * Runs the same bidding load on networks with a growing number of notaries and logs the bids per second settled by
+ * each, showing how throughput scales when the auctions are spread across notaries by NotarySelector.
+ *
+ * Every auction has its own bidder, whose funds live on the notary of the auction, and gets one bid per round, all
+ * auctions bidding concurrently. The notary counts, auctions and rounds can be changed with -Dbenchmark.notaries
+ * (defaults to 1,2,4), -Dbenchmark.auctions (defaults to 100) and -Dbenchmark.rounds (defaults to 10).
+ */
+public class NotaryShardingBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(NotaryShardingBenchmark.class);
+
+    private static final List<Integer> NOTARIES = Arrays.stream(System.getProperty("benchmark.notaries", "1,2,4")
+            .split(",")).map(String::trim).map(Integer::valueOf).collect(Collectors.toList());
+    private static final int AUCTIONS = Integer.getInteger("benchmark.auctions", 100);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 10);
+
+    @Test
+    public void bidThroughputPerNotaryCount() throws Exception {
+        for (int notaryCount : NOTARIES) {
+            List<String> notaries = IntStream.rangeClosed(1, notaryCount)
+                    .mapToObj(i -> i == 1 ? "O=Notary,L=London,C=GB" : "O=Notary" + i + ",L=London,C=GB")
+                    .collect(Collectors.toList());
+            MockNetwork network = new MockNetwork(prepareMockNetworkParameters(
+                    ImmutableMap.of(CordappSettings.NOTARIES, notaries), notaries).withThreadPerNode(true));
+            try {
+                long elapsedMillis = runBids(network);
+                logger.info("notaries={} auctions={} bids={} elapsed={}ms settled={}bids/s", notaryCount, AUCTIONS,
+                        AUCTIONS * ROUNDS, elapsedMillis, AUCTIONS * ROUNDS * 1000L / Math.max(1, elapsedMillis));
+            } finally {
+                network.stopNodes();
+            }
+        }
+    }
+
+    private long runBids(MockNetwork network) throws Exception {
+        StartedMockNode initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        Party partyInitiator = initiator.getInfo().getLegalIdentities().get(0);
+        Party partyResponder = responder.getInfo().getLegalIdentities().get(0);
+
+        List<CordaFuture<SignedTransaction>> issues = new ArrayList<>();
+        for (int i = 0; i < AUCTIONS; i++) {
+            issues.add(initiator.startFlow(new IssueNftFlow.Initiator("1", nftId(i), partyResponder)));
+        }
+        for (CordaFuture<SignedTransaction> issue : issues) {
+            issue.get(60, TimeUnit.SECONDS);
+        }
+        seedBidders(initiator, responder, partyInitiator, partyResponder);
+
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            List<CordaFuture<SignedTransaction>> bids = new ArrayList<>(AUCTIONS);
+            for (int i = 0; i < AUCTIONS; i++) {
+                bids.add(initiator.startFlow(new MakeBidFlow.Initiator(String.valueOf(round + 2), bidder(i), nftId(i),
+                        partyResponder)));
+            }
+            for (CordaFuture<SignedTransaction> bid : bids) {
+                bid.get(60, TimeUnit.SECONDS);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Records the funds of every bidder on the notary of its auction, so bids don't need a notary change.
+     */
+    private void seedBidders(StartedMockNode initiator, StartedMockNode responder, Party partyInitiator,
+                             Party partyResponder) throws Exception {
+        NotarySelector selector = initiator.getServices().cordaService(NotarySelector.class);
+        Map<Party, TransactionBuilder> buildersByNotary = new LinkedHashMap<>();
+        for (int i = 0; i < AUCTIONS; i++) {
+            TransactionBuilder builder = buildersByNotary.computeIfAbsent(selector.notaryForNft(nftId(i)),
+                    TransactionBuilder::new);
+            builder.addOutputState(AccountsFundsState.newCoin(AccountsFundsStateTxType.NEW_FUNDS,
+                    new BigDecimal("1000000"), bidder(i), partyInitiator, partyResponder));
+        }
+        for (TransactionBuilder builder : buildersByNotary.values()) {
+            builder.addCommand(new AccountsFundsContract.Commands.AddFunds(BigDecimal.ONE), partyInitiator.getOwningKey());
+            SignedTransaction stx = initiator.transaction(() -> initiator.getServices().signInitialTransaction(builder));
+            for (StartedMockNode node : Arrays.asList(initiator, responder)) {
+                node.transaction(() -> {
+                    node.getServices().recordTransactions(stx);
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static String nftId(int index) {
+        return "auction-" + index;
+    }
+
+    private static String bidder(int index) {
+        return String.format("0x%040x", index);
+    }
+}
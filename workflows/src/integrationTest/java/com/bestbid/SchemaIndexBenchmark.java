@@ -0,0 +1,147 @@
+package com.bestbid;
+
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Seeds the custom state tables with historical states and measures the lookups the flows and the API run on them,
+ * before and after the v2 changelogs (indexes) are applied.
+ *
+ * The amount of seeded states can be changed with -Dbenchmark.historicalStates (defaults to 10k).
+ */
+public class SchemaIndexBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexBenchmark.class);
+
+    private static final int HISTORICAL_STATES = Integer.getInteger("benchmark.historicalStates", 10_000);
+    private static final int BIDS_PER_NFT = 100;
+    private static final int LOOKUPS = 200;
+
+    private Connection connection;
+
+    @Before
+    public void setup() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:schema-index-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        migrate("migration/nft-state.changelog-v1.xml");
+        migrate("migration/accounts-funds-state.changelog-v1.xml");
+        seed();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.createStatement().execute("DROP ALL OBJECTS");
+        connection.close();
+    }
+
+    @Test
+    public void lookupLatencyBeforeAndAfterIndexes() throws Exception {
+        String nftQuery = "SELECT * FROM nft_states WHERE nft_id = ?";
+        String bidderQuery = "SELECT * FROM nft_states WHERE current_bidder = ?";
+        String addressQuery = "SELECT * FROM accounts_funds_states WHERE evm_address = ?";
+
+        long[] before = {measure(nftQuery), measure(bidderQuery), measure(addressQuery)};
+
+        migrate("migration/nft-state.changelog-v2.xml");
+        migrate("migration/accounts-funds-state.changelog-v2.xml");
+
+        long[] after = {measure(nftQuery), measure(bidderQuery), measure(addressQuery)};
+
+        logger.info("Lookup latency over {} historical states (avg of {} lookups, microseconds)", HISTORICAL_STATES, LOOKUPS);
+        logger.info("nft_id         before={} after={}", before[0], after[0]);
+        logger.info("current_bidder before={} after={}", before[1], after[1]);
+        logger.info("evm_address    before={} after={}", before[2], after[2]);
+
+        assertEquals(BIDS_PER_NFT, count(nftQuery, nftId(0)));
+        assertEquals(BIDS_PER_NFT, count(addressQuery, address(0)));
+    }
+
+    private void migrate(String changelog) throws Exception {
+        new Liquibase(changelog, new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                .update(new Contexts());
+    }
+
+    private void seed() throws Exception {
+        connection.setAutoCommit(false);
+        try (PreparedStatement nft = connection.prepareStatement("INSERT INTO nft_states (output_index, transaction_id, " +
+                "bid_number, auction_ended, minimum_bid, current_bid, current_bidder, nft_id, sender, receiver, linear_id) " +
+                "VALUES (0, ?, ?, FALSE, '10', ?, ?, ?, 'O=PartyA,L=London,C=GB', 'O=PartyC,L=Sydney,C=AU', ?)");
+             PreparedStatement account = connection.prepareStatement("INSERT INTO accounts_funds_states (output_index, " +
+                "transaction_id, type, evm_address, funds, sender, receiver, linear_id) " +
+                "VALUES (1, ?, 'NEW_BID', ?, '1000', 'O=PartyA,L=London,C=GB', 'O=PartyC,L=Sydney,C=AU', ?)")) {
+            for (int i = 0; i < HISTORICAL_STATES; i++) {
+                String txId = String.format("%064d", i);
+                int bidNumber = i % BIDS_PER_NFT;
+                int nftIndex = i / BIDS_PER_NFT;
+
+                nft.setString(1, txId);
+                nft.setInt(2, bidNumber);
+                nft.setString(3, String.valueOf(10 + bidNumber));
+                nft.setString(4, address(nftIndex));
+                nft.setString(5, nftId(nftIndex));
+                nft.setString(6, UUID.randomUUID().toString());
+                nft.addBatch();
+
+                account.setString(1, txId);
+                account.setString(2, address(nftIndex));
+                account.setString(3, UUID.randomUUID().toString());
+                account.addBatch();
+
+                if (i % 10_000 == 0) {
+                    nft.executeBatch();
+                    account.executeBatch();
+                }
+            }
+            nft.executeBatch();
+            account.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private long measure(String sql) throws Exception {
+        Random random = new Random(42);
+        int keys = Math.max(1, HISTORICAL_STATES / BIDS_PER_NFT);
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            int key = random.nextInt(keys);
+            count(sql, sql.contains("nft_id") ? nftId(key) : address(key));
+        }
+        return (System.nanoTime() - start) / LOOKUPS / 1_000;
+    }
+
+    private int count(String sql, String key) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int rows = 0;
+                while (resultSet.next()) {
+                    rows++;
+                }
+                return rows;
+            }
+        }
+    }
+
+    private static String nftId(int index) {
+        return String.valueOf(index);
+    }
+
+    private static String address(int index) {
+        return String.format("0x%040x", index);
+    }
+}
@@ -2,11 +2,14 @@ package com.bestbid.flows.AccountsFunds;
 
 import co.paralleluniverse.fibers.Suspendable;
 import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.services.CordappSettings;
+import com.bestbid.services.FundCoinSelector;
+import com.bestbid.services.NotarySelector;
+import com.bestbid.services.ProposalValidator;
 import com.bestbid.states.AccountsFundsState;
 import com.bestbid.states.AccountsFundsStateTxType;
 import net.corda.core.contracts.StateAndRef;
 import net.corda.core.flows.*;
-import net.corda.core.identity.CordaX500Name;
 import net.corda.core.identity.Party;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
@@ -36,26 +39,33 @@ public class AddFundsFlow {
             this.receiver = receiver;
         }
 
+        /**
+         * Tops up one of the coins of the address, or opens a new coin while the address holds fewer than
+         * accountFundCoins of them (CorDapp config, defaults to 1) or all of them are in use by other flows.
+         */
         @Suspendable
         @Override
         public SignedTransaction call() throws FlowException {
-            final Party notary = getServiceHub().getNetworkMapCache().getNotary(CordaX500Name.parse("O=Notary,L=London,C=GB"));
             Party me = getOurIdentity();
 
-            final TransactionBuilder builder = new TransactionBuilder(notary);
+            long targetCoins = CordappSettings.getLong(getServiceHub().getAppContext().getConfig(),
+                    CordappSettings.ACCOUNT_FUND_COINS, 1);
+            Optional<StateAndRef<AccountsFundsState>> optStateAndRef = FundCoinSelector.reserveToTopUp(getServiceHub(),
+                    getRunId().getUuid(), evmAddress, targetCoins);
+            final Party notary = optStateAndRef.isPresent() ? optStateAndRef.get().getState().getNotary()
+                    : getServiceHub().cordaService(NotarySelector.class).notaryForAccount(evmAddress);
 
-            Optional<StateAndRef<AccountsFundsState>> optStateAndRef = getServiceHub().getVaultService().
-                    queryBy(AccountsFundsState.class).getStates().stream()
-                    .filter(afs -> afs.getState().getData().getEvmAddress().equals(evmAddress)).findAny();
+            final TransactionBuilder builder = new TransactionBuilder(notary);
 
             BigDecimal changeAmount = new BigDecimal(funds);
             if (optStateAndRef.isPresent()) {
-                BigDecimal oldFunds = optStateAndRef.get().getState().getData().getFunds();
-                BigDecimal newFunds = oldFunds.add(changeAmount);
-                builder.addOutputState(new AccountsFundsState(type, newFunds, evmAddress, me, receiver));
+                AccountsFundsState oldState = optStateAndRef.get().getState().getData();
+                BigDecimal newFunds = oldState.getFunds().add(changeAmount);
+                builder.addOutputState(new AccountsFundsState(type, newFunds, evmAddress, me, receiver,
+                        oldState.getLinearId()));
                 builder.addInputState(optStateAndRef.get());
             } else {
-                builder.addOutputState(new AccountsFundsState(type, changeAmount, evmAddress, me, receiver));
+                builder.addOutputState(AccountsFundsState.newCoin(type, changeAmount, evmAddress, me, receiver));
             }
 
             builder.addCommand(new AccountsFundsContract.Commands.AddFunds(changeAmount),
@@ -87,9 +97,14 @@ public class AddFundsFlow {
                 @Suspendable
                 @Override
                 protected void checkTransaction(@NotNull SignedTransaction stx) throws FlowException {
+                    ProposalValidator.validate(getServiceHub(), stx);
                 }
             });
-            subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            try {
+                subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            } finally {
+                ProposalValidator.release(getServiceHub(), signedTransaction);
+            }
             return null;
         }
     }
@@ -0,0 +1,132 @@
+package com.bestbid.flows.AccountsFunds;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.flows.NotaryChanges;
+import com.bestbid.services.CordappSettings;
+import com.bestbid.services.FundCoinSelector;
+import com.bestbid.services.NotarySelector;
+import com.bestbid.services.ProposalValidator;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.EvmAddress;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BulkAddFundsFlow {
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class Initiator extends FlowLogic<SignedTransaction> {
+
+        private final Map<String, String> fundsByAddress;
+        private final Party receiver;
+
+        /**
+         * @param fundsByAddress the amount to credit to every address. Over RPC it must be a LinkedHashMap or a
+         * TreeMap, whose iteration order is stable.
+         */
+        public Initiator(Map<String, String> fundsByAddress, Party receiver) {
+            this.fundsByAddress = fundsByAddress;
+            this.receiver = receiver;
+        }
+
+        /**
+         * Credits every address in a single transaction. Each address gets the same treatment as in
+         * {@link AddFundsFlow}: one of its coins is topped up, or a new coin is opened. Addresses differing only by
+         * their case are credited once with the sum of their amounts. The transaction is notarised by the notary
+         * holding most of the topped up coins, the others are moved to it first.
+         */
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            Party me = getOurIdentity();
+
+            Map<String, BigDecimal> amountsByAddress = new TreeMap<>();
+            fundsByAddress.forEach((address, funds) ->
+                    amountsByAddress.merge(EvmAddress.normalise(address), new BigDecimal(funds), BigDecimal::add));
+            if (amountsByAddress.isEmpty()) {
+                throw new FlowException("A bulk deposit must credit at least one address");
+            }
+
+            long targetCoins = CordappSettings.getLong(getServiceHub().getAppContext().getConfig(),
+                    CordappSettings.ACCOUNT_FUND_COINS, 1);
+            Map<String, StateAndRef<AccountsFundsState>> toppedUpCoins = new TreeMap<>();
+            for (String evmAddress : amountsByAddress.keySet()) {
+                FundCoinSelector.reserveToTopUp(getServiceHub(), getRunId().getUuid(), evmAddress, targetCoins)
+                        .ifPresent(coin -> toppedUpCoins.put(evmAddress, coin));
+            }
+            final Party notary = toppedUpCoins.isEmpty()
+                    ? getServiceHub().cordaService(NotarySelector.class)
+                            .notaryForAccount(amountsByAddress.keySet().iterator().next())
+                    : NotarySelector.notaryHoldingMost(new ArrayList<>(toppedUpCoins.values()));
+
+            final TransactionBuilder builder = new TransactionBuilder(notary);
+            for (Map.Entry<String, BigDecimal> deposit : amountsByAddress.entrySet()) {
+                String evmAddress = deposit.getKey();
+                StateAndRef<AccountsFundsState> toppedUpCoin = toppedUpCoins.get(evmAddress);
+                if (toppedUpCoin != null) {
+                    toppedUpCoin = NotaryChanges.moveTo(this, toppedUpCoin, notary);
+                    AccountsFundsState oldState = toppedUpCoin.getState().getData();
+                    builder.addOutputState(new AccountsFundsState(AccountsFundsStateTxType.NEW_FUNDS,
+                            oldState.getFunds().add(deposit.getValue()), evmAddress, me, receiver, oldState.getLinearId()));
+                    builder.addInputState(toppedUpCoin);
+                } else {
+                    builder.addOutputState(AccountsFundsState.newCoin(AccountsFundsStateTxType.NEW_FUNDS,
+                            deposit.getValue(), evmAddress, me, receiver));
+                }
+            }
+
+            builder.addCommand(new AccountsFundsContract.Commands.BulkAddFunds(amountsByAddress),
+                    Arrays.asList(me.getOwningKey(), this.receiver.getOwningKey()));
+
+            builder.verify(getServiceHub());
+            final SignedTransaction ptx = getServiceHub().signInitialTransaction(builder);
+
+            List<FlowSession> sessions = Collections.singletonList(initiateFlow(receiver));
+
+            SignedTransaction stx = subFlow(new CollectSignaturesFlow(ptx, sessions));
+
+            return subFlow(new FinalityFlow(stx, sessions));
+        }
+    }
+
+    @InitiatedBy(Initiator.class)
+    public static class Responder extends FlowLogic<Void>{
+        private final FlowSession counterpartySession;
+
+        public Responder(FlowSession counterpartySession) {
+            this.counterpartySession = counterpartySession;
+        }
+
+        @Suspendable
+        @Override
+        public Void call() throws FlowException {
+            SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                @Suspendable
+                @Override
+                protected void checkTransaction(@NotNull SignedTransaction stx) throws FlowException {
+                    ProposalValidator.validate(getServiceHub(), stx);
+                }
+            });
+            try {
+                subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            } finally {
+                ProposalValidator.release(getServiceHub(), signedTransaction);
+            }
+            return null;
+        }
+    }
+}
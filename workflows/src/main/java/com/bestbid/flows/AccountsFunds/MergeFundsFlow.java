@@ -0,0 +1,130 @@
+package com.bestbid.flows.AccountsFunds;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.flows.NotaryChanges;
+import com.bestbid.services.CordappSettings;
+import com.bestbid.services.FundCoinSelector;
+import com.bestbid.services.NotarySelector;
+import com.bestbid.services.ProposalValidator;
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.NonEmptySet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MergeFundsFlow {
+
+    @InitiatingFlow
+    @StartableByRPC
+    @StartableByService
+    public static class Initiator extends FlowLogic<SignedTransaction> {
+
+        private final String evmAddress;
+        private final Party receiver;
+        private final Long targetCoins;
+
+        /**
+         * Brings the address back to accountFundCoins coins (CorDapp config, defaults to 1).
+         */
+        public Initiator(String evmAddress, Party receiver) {
+            this(evmAddress, receiver, null);
+        }
+
+        public Initiator(String evmAddress, Party receiver, Long targetCoins) {
+            this.evmAddress = evmAddress;
+            this.receiver = receiver;
+            this.targetCoins = targetCoins;
+        }
+
+        /**
+         * Merges the smallest coins of the address that aren't in use by other flows into one, leaving the address
+         * with targetCoins coins when none of them is locked. The merged coin goes back to the notary of the address,
+         * coins that moved to the notary of an auction when bidding are moved back first.
+         */
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            Party me = getOurIdentity();
+
+            long targetCoins = this.targetCoins != null ? this.targetCoins : CordappSettings.getLong(
+                    getServiceHub().getAppContext().getConfig(), CordappSettings.ACCOUNT_FUND_COINS, 1);
+            int totalCoins = getServiceHub().cordaService(UnconsumedStateIndex.class).findAccountCoins(evmAddress).size();
+            List<StateAndRef<AccountsFundsState>> coins = FundCoinSelector.reserveUnlocked(getServiceHub(),
+                    getRunId().getUuid(), evmAddress);
+            int coinsToMerge = (int) Math.min(coins.size(), totalCoins - targetCoins + 1);
+            if (coinsToMerge < 2) {
+                throw new FlowException("Nothing to merge for address " + evmAddress);
+            }
+            releaseUnmerged(coins.subList(coinsToMerge, coins.size()));
+            final Party notary = getServiceHub().cordaService(NotarySelector.class).notaryForAccount(evmAddress);
+            List<StateAndRef<AccountsFundsState>> merged = NotaryChanges.moveAllTo(this,
+                    new ArrayList<>(coins.subList(0, coinsToMerge)), notary);
+            StateAndRef<AccountsFundsState> largest = merged.get(merged.size() - 1);
+
+            final TransactionBuilder builder = new TransactionBuilder(notary);
+            merged.forEach(builder::addInputState);
+            builder.addOutputState(new AccountsFundsState(AccountsFundsStateTxType.FUNDS_MERGED,
+                    FundCoinSelector.sumOfFunds(merged), evmAddress, me, receiver,
+                    largest.getState().getData().getLinearId()));
+            builder.addCommand(new AccountsFundsContract.Commands.MergeFunds(),
+                    Arrays.asList(me.getOwningKey(), this.receiver.getOwningKey()));
+
+            builder.verify(getServiceHub());
+            final SignedTransaction ptx = getServiceHub().signInitialTransaction(builder);
+
+            List<FlowSession> sessions = Collections.singletonList(initiateFlow(receiver));
+
+            SignedTransaction stx = subFlow(new CollectSignaturesFlow(ptx, sessions));
+
+            return subFlow(new FinalityFlow(stx, sessions));
+        }
+
+        private void releaseUnmerged(List<StateAndRef<AccountsFundsState>> coins) {
+            if (coins.isEmpty()) {
+                return;
+            }
+            List<StateRef> refs = new ArrayList<>();
+            coins.forEach(coin -> refs.add(coin.getRef()));
+            getServiceHub().getVaultService().softLockRelease(getRunId().getUuid(), NonEmptySet.copyOf(refs));
+        }
+    }
+
+    @InitiatedBy(Initiator.class)
+    public static class Responder extends FlowLogic<Void>{
+        private final FlowSession counterpartySession;
+
+        public Responder(FlowSession counterpartySession) {
+            this.counterpartySession = counterpartySession;
+        }
+
+        @Suspendable
+        @Override
+        public Void call() throws FlowException {
+            SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                @Suspendable
+                @Override
+                protected void checkTransaction(@NotNull SignedTransaction stx) throws FlowException {
+                    ProposalValidator.validate(getServiceHub(), stx);
+                }
+            });
+            try {
+                subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            } finally {
+                ProposalValidator.release(getServiceHub(), signedTransaction);
+            }
+            return null;
+        }
+    }
+}
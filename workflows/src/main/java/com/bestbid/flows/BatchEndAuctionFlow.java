@@ -0,0 +1,133 @@
+package com.bestbid.flows;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.bestbid.contracts.NftContract;
+import com.bestbid.services.NotarySelector;
+import com.bestbid.services.ProposalValidator;
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class BatchEndAuctionFlow {
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class Initiator extends FlowLogic<SignedTransaction> {
+
+        private final List<String> nftIds;
+        private final Party receiver;
+
+        public Initiator(List<String> nftIds, Party receiver) {
+            this.nftIds = nftIds;
+            this.receiver = receiver;
+        }
+
+        /**
+         * Ends the auction of every NFT in a single transaction, repeated ids are ended once. The transaction must
+         * stay under the maxTransactionSize of the network (10MB by default), which is roughly a few thousand
+         * auctions. It is notarised by the notary holding most of the NFTs, the others are moved to it first.
+         */
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            Set<String> distinctNftIds = new TreeSet<>(nftIds);
+            if (distinctNftIds.isEmpty()) {
+                throw new FlowException("A batch end of auctions must consume at least one NftState");
+            }
+            Map<String, StateAndRef<NftState>> nftsById = getNftsByIds(distinctNftIds);
+            final Party notary = NotarySelector.notaryHoldingMost(new ArrayList<>(nftsById.values()));
+
+            Party me = getOurIdentity();
+
+            List<PublicKey> signers = Arrays.asList(me.getOwningKey(), this.receiver.getOwningKey());
+            final TransactionBuilder builder = new TransactionBuilder(notary);
+            for (String nftId : distinctNftIds) {
+                StateAndRef<NftState> inputNftStateAndRef = NotaryChanges.moveTo(this, nftsById.get(nftId), notary);
+                NftState nftInputState = inputNftStateAndRef.getState().getData();
+                builder.addInputState(inputNftStateAndRef)
+                        .addOutputState(new NftState(
+                                nftInputState.getBidNumber(),
+                                true,
+                                nftInputState.getMinimumBid(),
+                                nftInputState.getCurrentBid(),
+                                nftInputState.getCurrentBidder(),
+                                nftId,
+                                me,
+                                receiver,
+                                nftInputState.getAuctionEnd(),
+                                nftInputState.getLinearId()
+                        ));
+            }
+            builder.addCommand(new NftContract.Commands.BatchEndAuction(), signers);
+            builder.verify(getServiceHub());
+
+            final SignedTransaction ptx = getServiceHub().signInitialTransaction(builder);
+
+            List<FlowSession> sessions = Collections.singletonList(initiateFlow(receiver));
+            SignedTransaction stx = subFlow(new CollectSignaturesFlow(ptx, sessions));
+
+            return subFlow(new FinalityFlow(stx, sessions));
+        }
+
+        private Map<String, StateAndRef<NftState>> getNftsByIds(Set<String> distinctNftIds) throws FlowException {
+            Map<String, StateAndRef<NftState>> nftsById = getServiceHub().cordaService(UnconsumedStateIndex.class)
+                    .findNfts(distinctNftIds);
+            Set<String> missing = new TreeSet<>(distinctNftIds);
+            missing.removeAll(nftsById.keySet());
+            if (!missing.isEmpty()) {
+                throw new FlowException("Nfts with ids " + missing + " don't exist");
+            }
+            Set<String> ended = new TreeSet<>();
+            nftsById.forEach((nftId, nft) -> {
+                if (nft.getState().getData().isAuctionEnded()) {
+                    ended.add(nftId);
+                }
+            });
+            if (!ended.isEmpty()) {
+                throw new FlowException("Auctions of nfts with ids " + ended + " are already ended");
+            }
+            return nftsById;
+        }
+    }
+
+    @InitiatedBy(Initiator.class)
+    public static class Responder extends FlowLogic<Void> {
+        private final FlowSession counterpartySession;
+
+        public Responder(FlowSession counterpartySession) {
+            this.counterpartySession = counterpartySession;
+        }
+
+        @Suspendable
+        @Override
+        public Void call() throws FlowException {
+            SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                @Suspendable
+                @Override
+                protected void checkTransaction(@NotNull SignedTransaction stx) throws FlowException {
+                    ProposalValidator.validate(getServiceHub(), stx);
+                }
+            });
+            try {
+                subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            } finally {
+                ProposalValidator.release(getServiceHub(), signedTransaction);
+            }
+            return null;
+        }
+    }
+}
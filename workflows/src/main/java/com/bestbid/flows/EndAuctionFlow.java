@@ -3,23 +3,19 @@ package com.bestbid.flows;
 import co.paralleluniverse.fibers.Suspendable;
 
 import com.bestbid.contracts.NftContract;
-import com.bestbid.schema.NftStateSchemaV1;
+import com.bestbid.services.ProposalValidator;
+import com.bestbid.services.UnconsumedStateIndex;
 import com.bestbid.states.NftState;
-import com.bestbid.utils.Generated;
 import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
 import net.corda.core.flows.*;
-import net.corda.core.identity.CordaX500Name;
 import net.corda.core.identity.Party;
-import net.corda.core.node.services.Vault;
-import net.corda.core.node.services.vault.Builder;
-import net.corda.core.node.services.vault.CriteriaExpression;
-import net.corda.core.node.services.vault.QueryCriteria;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.reflect.Field;
 import java.security.PublicKey;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -41,11 +37,11 @@ public class EndAuctionFlow {
         @Suspendable
         @Override
         public SignedTransaction call() throws FlowException {
-            final Party notary = getServiceHub().getNetworkMapCache().getNotary(CordaX500Name.parse("O=Notary,L=London,C=GB"));
             Party me = getOurIdentity();
 
             StateAndRef<NftState> inputNftStateAndRef = getNftById();
             NftState nftInputState = inputNftStateAndRef.getState().getData();
+            final Party notary = inputNftStateAndRef.getState().getNotary();
 
             NftState nftOutputState = new NftState(
                     nftInputState.getBidNumber(),
@@ -55,7 +51,9 @@ public class EndAuctionFlow {
                     nftInputState.getCurrentBidder(),
                     nftId,
                     getOurIdentity(),
-                    receiver
+                    receiver,
+                    nftInputState.getAuctionEnd(),
+                    nftInputState.getLinearId()
             );
 
             List<PublicKey> signers = Arrays.asList(me.getOwningKey(), this.receiver.getOwningKey());
@@ -71,33 +69,73 @@ public class EndAuctionFlow {
             List<FlowSession> sessions = Collections.singletonList(initiateFlow(receiver));
             SignedTransaction stx = subFlow(new CollectSignaturesFlow(ptx, sessions));
 
-            return subFlow(new FinalityFlow(stx, sessions));
+            try {
+                return subFlow(new FinalityFlow(stx, sessions));
+            } catch (NotaryException e) {
+                // The responder waits for the transaction until its session ends, holding the inputs it reserved
+                // with ProposalValidator, a retry spending them would be refused until then.
+                for (FlowSession session : sessions) {
+                    session.close();
+                }
+                throw e;
+            }
         }
 
         private StateAndRef<NftState> getNftById() throws FlowException {
-            QueryCriteria generalCriteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL);
-            Field nftIdField = getNftIdField();
-            CriteriaExpression criteria = Builder.equal(nftIdField, nftId);
-            QueryCriteria nftQuery = new QueryCriteria.VaultCustomQueryCriteria(criteria);
-            generalCriteria = generalCriteria.and(nftQuery);
+            return getServiceHub().cordaService(UnconsumedStateIndex.class).findNft(nftId)
+                    .orElseThrow(() -> new FlowException("NFT with " + nftId + " doesn't exist"));
+        }
+    }
 
-            Vault.Page<NftState> nftStateAndRefs = getServiceHub().getVaultService()
-                    .queryBy(NftState.class, generalCriteria);
+    /**
+     * Started by the nodes of both participants when an auction with an end time expires, see
+     * NftState.nextScheduledActivity. Only the node that is the sender of the latest NftState of the auction, the one
+     * that issued it or made its last bid, ends it, the other one just records the transaction as the responder.
+     *
+     * The scheduler doesn't run an activity again once its flow has failed, so a failed attempt is logged and retried
+     * after a delay, until the auction is ended or its NftState is spent by another transaction, which schedules its
+     * own activity.
+     */
+    @SchedulableFlow
+    public static class Scheduled extends FlowLogic<Void> {
+        private static final int MAX_ATTEMPTS = 5;
+        private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+        private final StateRef stateRef;
+
+        public Scheduled(StateRef stateRef) {
+            this.stateRef = stateRef;
+        }
 
-            try {
-                return nftStateAndRefs.getStates().get(0);
-            } catch (Exception e) {
-                throw new FlowException("NFT with " + nftId + " doesn't exist");
+        @Suspendable
+        @Override
+        public Void call() throws FlowException {
+            NftState nftState = getServiceHub().<NftState>toStateAndRef(stateRef).getState().getData();
+            if (!nftState.getSender().equals(getOurIdentity()) || nftState.isAuctionEnded()) {
+                return null;
+            }
+            for (int attempt = 1; isLatest(nftState); attempt++) {
+                try {
+                    subFlow(new Initiator(nftState.getNftId(), nftState.getReceiver()));
+                    return null;
+                } catch (FlowException e) {
+                    if (attempt >= MAX_ATTEMPTS) {
+                        getLogger().error("Could not end the auction of NFT {} after {} attempts",
+                                nftState.getNftId(), attempt, e);
+                        throw e;
+                    }
+                    getLogger().warn("Could not end the auction of NFT {}, retrying in {}s", nftState.getNftId(),
+                            RETRY_DELAY.getSeconds(), e);
+                }
+                sleep(RETRY_DELAY);
             }
+            return null;
         }
 
-        @Generated
-        private Field getNftIdField() throws FlowException {
-            try {
-                return NftStateSchemaV1.PersistentNftState.class.getDeclaredField("nftId");
-            } catch (NoSuchFieldException e) {
-                throw new FlowException("value field not found");
-            }
+        private boolean isLatest(NftState nftState) {
+            return getServiceHub().cordaService(UnconsumedStateIndex.class).findNft(nftState.getNftId())
+                    .map(latest -> latest.getRef().equals(stateRef))
+                    .orElse(false);
         }
     }
 
@@ -116,9 +154,14 @@ public class EndAuctionFlow {
                 @Suspendable
                 @Override
                 protected void checkTransaction(@NotNull SignedTransaction stx) throws FlowException {
+                    ProposalValidator.validate(getServiceHub(), stx);
                 }
             });
-            subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            try {
+                subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            } finally {
+                ProposalValidator.release(getServiceHub(), signedTransaction);
+            }
             return null;
         }
     }
@@ -0,0 +1,20 @@
+package com.bestbid.flows;
+
+import com.bestbid.services.AuctionBidStats;
+import com.bestbid.services.BidMetrics;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+
+import java.util.List;
+
+/**
+ * Returns the bid sequencing metrics of every auction that received a bid since the node started.
+ */
+@StartableByRPC
+public class GetBidMetricsFlow extends FlowLogic<List<AuctionBidStats>> {
+
+    @Override
+    public List<AuctionBidStats> call() {
+        return getServiceHub().cordaService(BidMetrics.class).snapshot();
+    }
+}
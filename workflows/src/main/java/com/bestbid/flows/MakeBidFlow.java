@@ -2,63 +2,149 @@ package com.bestbid.flows;
 
 import co.paralleluniverse.fibers.Suspendable;
 import com.bestbid.contracts.AccountsFundsContract;
-import com.bestbid.schema.AccountsFundsStateSchemaV1;
-import com.bestbid.schema.NftStateSchemaV1;
+import com.bestbid.services.BidMetrics;
+import com.bestbid.services.BidPreValidator;
+import com.bestbid.services.BidRejection;
+import com.bestbid.services.CordappSettings;
+import com.bestbid.services.FundCoinSelector;
+import com.bestbid.services.ProposalValidator;
+import com.bestbid.services.StaleProposalException;
+import com.bestbid.services.UnconsumedStateIndex;
 import com.bestbid.states.AccountsFundsState;
 import com.bestbid.states.AccountsFundsStateTxType;
 import com.bestbid.states.NftState;
-import com.bestbid.utils.Generated;
 import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.TimeWindow;
+import net.corda.core.cordapp.CordappConfig;
 import net.corda.core.flows.*;
-import net.corda.core.identity.CordaX500Name;
 import net.corda.core.identity.Party;
-import net.corda.core.node.services.Vault;
-import net.corda.core.node.services.vault.Builder;
-import net.corda.core.node.services.vault.CriteriaExpression;
-import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.StatesNotAvailableException;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.NonEmptySet;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.annotation.RetentionPolicy;
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.security.PublicKey;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class MakeBidFlow {
 
     @InitiatingFlow
     @StartableByRPC
+    @StartableByService
     public static class Initiator extends FlowLogic<SignedTransaction> {
 
         private final String bidAmount;
         private final String bidder;
         private final String nftId;
         private final Party receiver;
+        private final int collapsedBids;
+        private final BigDecimal highestRejectedBid;
 
         public Initiator(String bidAmount, String bidder, String nftId, Party receiver) {
+            this(bidAmount, bidder, nftId, receiver, 0, null);
+        }
+
+        /**
+         * Records the winning bid of a batching window, see {@link AccountsFundsContract.Commands.MakeBatchedBid}.
+         * highestRejectedBid is only read when collapsedBids is above 0.
+         */
+        public Initiator(String bidAmount, String bidder, String nftId, Party receiver, int collapsedBids,
+                         BigDecimal highestRejectedBid) {
             this.bidAmount = bidAmount;
             this.bidder = bidder;
             this.nftId = nftId;
             this.receiver = receiver;
+            this.collapsedBids = collapsedBids;
+            this.highestRejectedBid = highestRejectedBid;
         }
 
+        /**
+         * Another flow may consume the NftState or an AccountsFundsState between the moment they are read and the
+         * notarisation. When the notary reports that conflict the bid is retried against the latest states, up to
+         * bidRetryAttempts times (CorDapp config, defaults to 3) with a jittered backoff starting at
+         * bidRetryBackoffMillis (defaults to 100).
+         *
+         * The inputs are soft locked for this flow before the transaction is signed, so a concurrent flow of this node
+         * picking the same states (e.g. another bid of the same bidder) backs off locally the same way, and fails
+         * without reaching the notary once the attempts run out. Coins of the bidder locked by another flow are
+         * skipped by {@link FundCoinSelector}, so an address split in several coins (accountFundCoins) bids on
+         * several NFTs at once.
+         *
+         * Each attempt first checks the bid against the latest NftState and funds with {@link BidPreValidator}, a bid
+         * that can't win fails with a {@link com.bestbid.services.BidRejectedException} before any coin is reserved
+         * or the counterparty is contacted. A bid the counterparty refuses with a {@link StaleProposalException}
+         * because it already saw its inputs consumed is retried as a notary conflict.
+         */
         @Suspendable
         @Override
         public SignedTransaction call() throws FlowException {
-            final Party notary = getServiceHub().getNetworkMapCache().getNotary(CordaX500Name.parse("O=Notary,L=London,C=GB"));
+            CordappConfig config = getServiceHub().getAppContext().getConfig();
+            long attempts = CordappSettings.getLong(config, CordappSettings.BID_RETRY_ATTEMPTS, 3);
+            long backoffMillis = CordappSettings.getLong(config, CordappSettings.BID_RETRY_BACKOFF_MILLIS, 100);
+            BidMetrics metrics = getServiceHub().cordaService(BidMetrics.class);
+
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return makeBid();
+                } catch (StatesNotAvailableException e) {
+                    if (attempt >= attempts) {
+                        metrics.lockedInputsUnresolved(nftId);
+                        throw new FlowException("The NFT or the funds of this bid are locked by another flow, try again later");
+                    }
+                    metrics.lockedInputsRetried(nftId);
+                } catch (NotaryException e) {
+                    if (!(e.getError() instanceof NotaryError.Conflict)) {
+                        throw e;
+                    }
+                    if (attempt >= attempts) {
+                        metrics.notaryConflictUnresolved(nftId);
+                        throw e;
+                    }
+                    metrics.notaryConflictRetried(nftId);
+                } catch (StaleProposalException e) {
+                    if (attempt >= attempts) {
+                        metrics.notaryConflictUnresolved(nftId);
+                        throw e;
+                    }
+                    metrics.notaryConflictRetried(nftId);
+                }
+                getServiceHub().getVaultService().softLockRelease(getRunId().getUuid(), null);
+                long ceiling = backoffMillis << (attempt - 1);
+                sleep(Duration.ofMillis(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1)));
+            }
+        }
+
+        @Suspendable
+        private SignedTransaction makeBid() throws FlowException {
             Party me = getOurIdentity();
 
             StateAndRef<NftState> inputNftStateAndRef = getNftById();
             NftState nftInputState = inputNftStateAndRef.getState().getData();
+            final Party notary = inputNftStateAndRef.getState().getNotary();
+            Optional<BidRejection> rejection = BidPreValidator.validate(getServiceHub(), nftInputState,
+                    new BigDecimal(bidAmount), bidder);
+            if (rejection.isPresent()) {
+                throw rejection.get().toException();
+            }
 
             final TransactionBuilder builder = buildTransaction(notary, me, inputNftStateAndRef, nftInputState);
+            if (nftInputState.getAuctionEnd() != null) {
+                builder.setTimeWindow(TimeWindow.untilOnly(nftInputState.getAuctionEnd()));
+            }
             if (nftInputState.getBidNumber() > 0) {
-                addCurrentBidderToTransaction(nftInputState, builder);
+                long targetCoins = CordappSettings.getLong(getServiceHub().getAppContext().getConfig(),
+                        CordappSettings.ACCOUNT_FUND_COINS, 1);
+                addCurrentBidderToTransaction(nftInputState, builder, notary, targetCoins);
             }
+            getServiceHub().getVaultService().softLockReserve(getRunId().getUuid(),
+                    NonEmptySet.copyOf(builder.inputStates()));
 
             builder.verify(getServiceHub());
 
@@ -67,24 +153,52 @@ public class MakeBidFlow {
             List<FlowSession> sessions = Collections.singletonList(initiateFlow(receiver));
             SignedTransaction stx = subFlow(new CollectSignaturesFlow(ptx, sessions));
 
-            return subFlow(new FinalityFlow(stx, sessions));
+            try {
+                return subFlow(new FinalityFlow(stx, sessions));
+            } catch (NotaryException e) {
+                // The responder waits for the transaction until its session ends, holding the inputs it reserved
+                // with ProposalValidator, a retry spending them would be refused until then.
+                for (FlowSession session : sessions) {
+                    session.close();
+                }
+                throw e;
+            }
         }
 
-        private void addCurrentBidderToTransaction(NftState nftInputState, TransactionBuilder builder) throws FlowException {
+        /**
+         * The current bidder is refunded on one of its coins, or on a new coin while it holds fewer than targetCoins
+         * or all of them are in use by other flows.
+         */
+        @Suspendable
+        private void addCurrentBidderToTransaction(NftState nftInputState, TransactionBuilder builder, Party notary,
+                                                   long targetCoins) throws FlowException {
+            Optional<StateAndRef<AccountsFundsState>> reservedCoin = FundCoinSelector.reserveToTopUp(
+                    getServiceHub(), getRunId().getUuid(), nftInputState.getCurrentBidder(), targetCoins);
+            if (!reservedCoin.isPresent()) {
+                builder.addOutputState(AccountsFundsState.newCoin(AccountsFundsStateTxType.BID_OVERTAKEN,
+                        nftInputState.getCurrentBid(), nftInputState.getCurrentBidder(), getOurIdentity(), receiver));
+                return;
+            }
             StateAndRef<AccountsFundsState> currentBidderInputStateAndRef =
-                    getAccountsStateByAddress(nftInputState.getCurrentBidder());
+                    NotaryChanges.moveTo(this, reservedCoin.get(), notary);
             AccountsFundsState currentBidderInputState = currentBidderInputStateAndRef.getState().getData();
             AccountsFundsState currentBidderOutputState = new AccountsFundsState(
                     AccountsFundsStateTxType.BID_OVERTAKEN,
                     currentBidderInputState.getFunds().add(nftInputState.getCurrentBid()),
                     currentBidderInputState.getEvmAddress(),
                     getOurIdentity(),
-                    receiver
+                    receiver,
+                    currentBidderInputState.getLinearId()
             );
             builder.addInputState(currentBidderInputStateAndRef)
                     .addOutputState(currentBidderOutputState);
         }
 
+        /**
+         * The transaction is notarised by the notary of the NFT, coins of the bidder issued on another notary are
+         * moved to it first.
+         */
+        @Suspendable
         private TransactionBuilder buildTransaction(Party notary, Party me, StateAndRef<NftState> inputNftStateAndRef,
                                                     NftState nftInputState) throws FlowException {
             NftState nftOutputState = new NftState(
@@ -95,76 +209,43 @@ public class MakeBidFlow {
                 bidder,
                 nftId,
                 getOurIdentity(),
-                receiver
+                receiver,
+                nftInputState.getAuctionEnd(),
+                nftInputState.getLinearId()
             );
-            StateAndRef<AccountsFundsState> newBidderInputStateAndRef = getAccountsStateByAddress(bidder);
-            AccountsFundsState newBidderInputState = newBidderInputStateAndRef.getState().getData();
+            List<StateAndRef<AccountsFundsState>> newBidderInputStateAndRefs = NotaryChanges.moveAllTo(this,
+                    FundCoinSelector.reserveCovering(getServiceHub(), getRunId().getUuid(), bidder,
+                            new BigDecimal(bidAmount)), notary);
+            AccountsFundsState newBidderInputState = newBidderInputStateAndRefs.get(0).getState().getData();
             AccountsFundsState newBidderOutputState = new AccountsFundsState(
                     AccountsFundsStateTxType.NEW_BID,
-                    newBidderInputState.getFunds().subtract(new BigDecimal(bidAmount)),
+                    FundCoinSelector.sumOfFunds(newBidderInputStateAndRefs).subtract(new BigDecimal(bidAmount)),
                     newBidderInputState.getEvmAddress(),
                     getOurIdentity(),
-                    receiver
+                    receiver,
+                    newBidderInputState.getLinearId()
             );
 
             List<PublicKey> signers = Arrays.asList(me.getOwningKey(), this.receiver.getOwningKey());
-            return new TransactionBuilder(notary)
-                    .addInputState(inputNftStateAndRef)
-                    .addInputState(newBidderInputStateAndRef)
+            TransactionBuilder builder = new TransactionBuilder(notary).addInputState(inputNftStateAndRef);
+            newBidderInputStateAndRefs.forEach(builder::addInputState);
+            return builder
                     .addOutputState(nftOutputState)
                     .addOutputState(newBidderOutputState)
-                    .addCommand(new AccountsFundsContract.Commands.MakeBid(new BigDecimal(bidAmount)), signers);
+                    .addCommand(makeBidCommand(), signers);
         }
 
-        private StateAndRef<NftState> getNftById() throws FlowException {
-            QueryCriteria generalCriteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL);
-            Field nftIdField = getNftIdField();
-            CriteriaExpression criteria = Builder.equal(nftIdField, nftId);
-            QueryCriteria nftQuery = new QueryCriteria.VaultCustomQueryCriteria(criteria);
-            generalCriteria = generalCriteria.and(nftQuery);
-
-            Vault.Page<NftState> nftStateAndRefs = getServiceHub().getVaultService()
-                    .queryBy(NftState.class, generalCriteria);
-
-            try {
-                return nftStateAndRefs.getStates().get(0);
-            } catch (Exception e) {
-                throw new FlowException("NFT with " + nftId + " doesn't exist");
-            }
-        }
-
-        @Generated
-        private Field getNftIdField() throws FlowException {
-            try {
-                return NftStateSchemaV1.PersistentNftState.class.getDeclaredField("nftId");
-            } catch (NoSuchFieldException e) {
-                throw new FlowException("value field not found");
+        private AccountsFundsContract.Commands.MakeBid makeBidCommand() {
+            if (collapsedBids > 0) {
+                return new AccountsFundsContract.Commands.MakeBatchedBid(new BigDecimal(bidAmount), collapsedBids,
+                        highestRejectedBid);
             }
+            return new AccountsFundsContract.Commands.MakeBid(new BigDecimal(bidAmount));
         }
 
-        private StateAndRef<AccountsFundsState> getAccountsStateByAddress(String address) throws FlowException {
-            QueryCriteria generalCriteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL);
-            Field addressField = getEvmAddressField();
-            CriteriaExpression criteria = Builder.equal(addressField, address);
-            QueryCriteria queryByAddress = new QueryCriteria.VaultCustomQueryCriteria(criteria);
-            generalCriteria = generalCriteria.and(queryByAddress);
-
-            Vault.Page<AccountsFundsState> accountsFundsStateAndRefs = getServiceHub().getVaultService()
-                    .queryBy(AccountsFundsState.class, generalCriteria);
-            try{
-                return accountsFundsStateAndRefs.getStates().get(0);
-            } catch (Exception e) {
-                throw new FlowException("User with address " + address + " not found");
-            }
-        }
-
-        @Generated
-        private Field getEvmAddressField() throws FlowException {
-            try {
-                return AccountsFundsStateSchemaV1.PersistentAccountsFundsState.class.getDeclaredField("evmAddress");
-            } catch (NoSuchFieldException e) {
-                throw new FlowException("value field not found");
-            }
+        private StateAndRef<NftState> getNftById() throws FlowException {
+            return getServiceHub().cordaService(UnconsumedStateIndex.class).findNft(nftId)
+                    .orElseThrow(() -> new FlowException("NFT with " + nftId + " doesn't exist"));
         }
     }
 
@@ -183,9 +264,14 @@ public class MakeBidFlow {
                 @Suspendable
                 @Override
                 protected void checkTransaction(@NotNull SignedTransaction stx) throws FlowException {
+                    ProposalValidator.validate(getServiceHub(), stx);
                 }
             });
-            subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            try {
+                subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            } finally {
+                ProposalValidator.release(getServiceHub(), signedTransaction);
+            }
             return null;
         }
     }
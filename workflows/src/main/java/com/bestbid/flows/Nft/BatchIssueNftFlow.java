@@ -0,0 +1,126 @@
+package com.bestbid.flows.Nft;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.bestbid.contracts.NftContract;
+import com.bestbid.services.NotarySelector;
+import com.bestbid.services.ProposalValidator;
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.NftState;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class BatchIssueNftFlow {
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class Initiator extends FlowLogic<List<SignedTransaction>> {
+
+        private final Map<String, String> minimumBidsByNftId;
+        private final Party receiver;
+
+        /**
+         * @param minimumBidsByNftId the minimum bid of every NFT to issue. Over RPC it must be a LinkedHashMap or a
+         * TreeMap, whose iteration order is stable.
+         */
+        public Initiator(Map<String, String> minimumBidsByNftId, Party receiver) {
+            this.minimumBidsByNftId = minimumBidsByNftId;
+            this.receiver = receiver;
+        }
+
+        /**
+         * Issues the NFTs in one transaction per notary, each NFT on the notary NotarySelector picks for it, like
+         * IssueNftFlow does. Each transaction must stay under the maxTransactionSize of the network (10MB by
+         * default), which is roughly a few thousand NFTs. The transactions are committed one after the other, so when
+         * one of them fails the ones before it stay issued.
+         */
+        @Suspendable
+        @Override
+        public List<SignedTransaction> call() throws FlowException {
+            if (minimumBidsByNftId.isEmpty()) {
+                throw new FlowException("A batch issue must generate at least one NftState");
+            }
+            verifyNftStatesAreNotCreated();
+
+            NotarySelector notarySelector = getServiceHub().cordaService(NotarySelector.class);
+            Map<Party, Map<String, String>> minimumBidsByNotary = new LinkedHashMap<>();
+            for (Map.Entry<String, String> nft : minimumBidsByNftId.entrySet()) {
+                minimumBidsByNotary.computeIfAbsent(notarySelector.notaryForNft(nft.getKey()),
+                        notary -> new LinkedHashMap<>()).put(nft.getKey(), nft.getValue());
+            }
+
+            List<SignedTransaction> transactions = new ArrayList<>(minimumBidsByNotary.size());
+            for (Map.Entry<Party, Map<String, String>> batch : minimumBidsByNotary.entrySet()) {
+                transactions.add(issue(batch.getKey(), batch.getValue()));
+            }
+            return transactions;
+        }
+
+        @Suspendable
+        private SignedTransaction issue(Party notary, Map<String, String> minimumBids) throws FlowException {
+            Party me = getOurIdentity();
+
+            List<PublicKey> signers = Arrays.asList(me.getOwningKey(), this.receiver.getOwningKey());
+            final TransactionBuilder builder = new TransactionBuilder(notary);
+            minimumBids.forEach((nftId, minimumBid) -> builder.addOutputState(
+                    new NftState(0, false, new BigDecimal(minimumBid), new BigDecimal("0"), "", nftId, me, receiver)));
+            builder.addCommand(new NftContract.Commands.BatchIssue(), signers);
+            builder.verify(getServiceHub());
+
+            final SignedTransaction ptx = getServiceHub().signInitialTransaction(builder);
+
+            List<FlowSession> sessions = Collections.singletonList(initiateFlow(receiver));
+            SignedTransaction stx = subFlow(new CollectSignaturesFlow(ptx, sessions));
+
+            return subFlow(new FinalityFlow(stx, sessions));
+        }
+
+        private void verifyNftStatesAreNotCreated() throws FlowException {
+            Set<String> existing = new TreeSet<>(getServiceHub().cordaService(UnconsumedStateIndex.class)
+                    .findExistingNftIds(minimumBidsByNftId.keySet()));
+            if (!existing.isEmpty()) {
+                throw new FlowException("Nfts with ids " + existing + " are already created");
+            }
+        }
+    }
+
+    @InitiatedBy(Initiator.class)
+    public static class Responder extends FlowLogic<Void>{
+        private final FlowSession counterpartySession;
+
+        public Responder(FlowSession counterpartySession) {
+            this.counterpartySession = counterpartySession;
+        }
+
+        @Suspendable
+        @Override
+        public Void call() throws FlowException {
+            SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                @Suspendable
+                @Override
+                protected void checkTransaction(@NotNull SignedTransaction stx) throws FlowException {
+                    ProposalValidator.validate(getServiceHub(), stx);
+                }
+            });
+            try {
+                subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            } finally {
+                ProposalValidator.release(getServiceHub(), signedTransaction);
+            }
+            return null;
+        }
+    }
+}
@@ -2,23 +2,19 @@ package com.bestbid.flows.Nft;
 
 import co.paralleluniverse.fibers.Suspendable;
 import com.bestbid.contracts.NftContract;
-import com.bestbid.schema.NftStateSchemaV1;
+import com.bestbid.services.NotarySelector;
+import com.bestbid.services.ProposalValidator;
+import com.bestbid.services.UnconsumedStateIndex;
 import com.bestbid.states.NftState;
-import com.bestbid.utils.Generated;
 import net.corda.core.flows.*;
-import net.corda.core.identity.CordaX500Name;
 import net.corda.core.identity.Party;
-import net.corda.core.node.services.Vault;
-import net.corda.core.node.services.vault.Builder;
-import net.corda.core.node.services.vault.CriteriaExpression;
-import net.corda.core.node.services.vault.QueryCriteria;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.security.PublicKey;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -32,24 +28,34 @@ public class IssueNftFlow {
         private final String minimumBid;
         private final String nftId;
         private final Party receiver;
+        private final Instant auctionEnd;
 
         public Initiator(String minimumBid, String nftId, Party receiver) {
+            this(minimumBid, nftId, receiver, null);
+        }
+
+        /**
+         * Issues an auction that is ended by the nodes at auctionEnd, see EndAuctionFlow.Scheduled.
+         */
+        public Initiator(String minimumBid, String nftId, Party receiver, Instant auctionEnd) {
             this.minimumBid = minimumBid;
             this.nftId = nftId;
             this.receiver = receiver;
+            this.auctionEnd = auctionEnd;
         }
 
         @Suspendable
         @Override
         public SignedTransaction call() throws FlowException {
-            final Party notary = getServiceHub().getNetworkMapCache().getNotary(CordaX500Name.parse("O=Notary,L=London,C=GB"));
+            final Party notary = getServiceHub().cordaService(NotarySelector.class).notaryForNft(nftId);
             verifyNftStateIsAlreadyCreated();
 
             Party me = getOurIdentity();
 
             List<PublicKey> signers = Arrays.asList(me.getOwningKey(), this.receiver.getOwningKey());
             final TransactionBuilder builder = new TransactionBuilder(notary)
-                    .addOutputState(new NftState(0, false, new BigDecimal(minimumBid), new BigDecimal("0"), "", nftId, me, receiver))
+                    .addOutputState(new NftState(0, false, new BigDecimal(minimumBid), new BigDecimal("0"), "", nftId, me, receiver,
+                            auctionEnd))
                     .addCommand(new NftContract.Commands.Issue(), signers);
             builder.verify(getServiceHub());
 
@@ -62,28 +68,10 @@ public class IssueNftFlow {
         }
 
         private void verifyNftStateIsAlreadyCreated() throws FlowException {
-            QueryCriteria generalCriteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL);
-            Field nftIdField = getNftIdField();
-            CriteriaExpression criteria = Builder.equal(nftIdField, nftId);
-            QueryCriteria nftQuery = new QueryCriteria.VaultCustomQueryCriteria(criteria);
-            generalCriteria = generalCriteria.and(nftQuery);
-
-            Vault.Page<NftState> nftStateAndRefs = getServiceHub().getVaultService()
-                    .queryBy(NftState.class, generalCriteria);
-
-            if(nftStateAndRefs.getStates().size() == 1) {
+            if (getServiceHub().cordaService(UnconsumedStateIndex.class).findNft(nftId).isPresent()) {
                 throw new FlowException("Nft with id " + nftId + " is already created");
             }
         }
-
-        @Generated
-        private Field getNftIdField() throws FlowException {
-            try {
-                return NftStateSchemaV1.PersistentNftState.class.getDeclaredField("nftId");
-            } catch (NoSuchFieldException e) {
-                throw new FlowException("value field not found");
-            }
-        }
     }
 
     @InitiatedBy(Initiator.class)
@@ -101,9 +89,14 @@ public class IssueNftFlow {
                 @Suspendable
                 @Override
                 protected void checkTransaction(@NotNull SignedTransaction stx) throws FlowException {
+                    ProposalValidator.validate(getServiceHub(), stx);
                 }
             });
-            subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            try {
+                subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            } finally {
+                ProposalValidator.release(getServiceHub(), signedTransaction);
+            }
             return null;
         }
     }
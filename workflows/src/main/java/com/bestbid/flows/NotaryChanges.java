@@ -0,0 +1,44 @@
+package com.bestbid.flows;
+
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.AbstractStateReplacementFlow;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.NotaryChangeFlow;
+import net.corda.core.identity.Party;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves inputs issued on another notary (see NotarySelector) to the notary of the transaction spending them. Each move
+ * is a notary change transaction signed by every participant and notarised by the old notary.
+ */
+public final class NotaryChanges {
+
+    private NotaryChanges() {
+    }
+
+    @Suspendable
+    public static <T extends ContractState> StateAndRef<T> moveTo(FlowLogic<?> flow, StateAndRef<T> state,
+                                                                  Party notary) throws FlowException {
+        if (state.getState().getNotary().equals(notary)) {
+            return state;
+        }
+        return flow.subFlow(new NotaryChangeFlow<>(state, notary,
+                AbstractStateReplacementFlow.Instigator.Companion.tracker()));
+    }
+
+    @Suspendable
+    public static <T extends ContractState> List<StateAndRef<T>> moveAllTo(FlowLogic<?> flow,
+                                                                         List<StateAndRef<T>> states,
+                                                                         Party notary) throws FlowException {
+        List<StateAndRef<T>> moved = new ArrayList<>(states.size());
+        for (StateAndRef<T> state : states) {
+            moved.add(moveTo(flow, state, notary));
+        }
+        return moved;
+    }
+}
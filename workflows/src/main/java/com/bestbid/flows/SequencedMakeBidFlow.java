@@ -0,0 +1,66 @@
+package com.bestbid.flows;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.bestbid.services.BidSequencer;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowExternalAsyncOperation;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Makes a bid through the {@link BidSequencer}, so it runs after the bids already queued on the same NFT instead of
+ * racing them to the notary.
+ *
+ * The bid itself is a {@link MakeBidFlow} started by the sequencer, this flow waits for it without holding a flow
+ * worker thread. The bid is queued under the deduplicationId of the wait, so a replay of this flow waits for the same
+ * bid instead of queueing it again.
+ */
+@StartableByRPC
+public class SequencedMakeBidFlow extends FlowLogic<SignedTransaction> {
+
+    private final String bidAmount;
+    private final String bidder;
+    private final String nftId;
+    private final Party receiver;
+
+    public SequencedMakeBidFlow(String bidAmount, String bidder, String nftId, Party receiver) {
+        this.bidAmount = bidAmount;
+        this.bidder = bidder;
+        this.nftId = nftId;
+        this.receiver = receiver;
+    }
+
+    @Suspendable
+    @Override
+    public SignedTransaction call() throws FlowException {
+        BidSequencer sequencer = getServiceHub().cordaService(BidSequencer.class);
+        return await(new SequencedBid(sequencer, bidAmount, bidder, nftId, receiver));
+    }
+
+    private static class SequencedBid implements FlowExternalAsyncOperation<SignedTransaction> {
+        private final BidSequencer sequencer;
+        private final String bidAmount;
+        private final String bidder;
+        private final String nftId;
+        private final Party receiver;
+
+        private SequencedBid(BidSequencer sequencer, String bidAmount, String bidder, String nftId, Party receiver) {
+            this.sequencer = sequencer;
+            this.bidAmount = bidAmount;
+            this.bidder = bidder;
+            this.nftId = nftId;
+            this.receiver = receiver;
+        }
+
+        @NotNull
+        @Override
+        public CompletableFuture<SignedTransaction> execute(@NotNull String deduplicationId) {
+            return sequencer.submit(deduplicationId, bidAmount, bidder, nftId, receiver);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bestbid.services;
+
+import net.corda.core.serialization.CordaSerializable;
+
+/**
+ * Snapshot of the bid sequencing metrics of one auction, see {@link BidMetrics}.
+ */
+@CordaSerializable
+public class AuctionBidStats {
+
+    private final String nftId;
+    private final int queueDepth;
+    private final long sequencedBids;
+    private final long rejectedBids;
+    private final long collapsedBids;
+    private final long averageWaitMillis;
+    private final long maxWaitMillis;
+    private final long notaryRetries;
+    private final long notaryFailures;
+    private final long lockRetries;
+    private final long lockFailures;
+
+    public AuctionBidStats(String nftId, int queueDepth, long sequencedBids, long rejectedBids, long collapsedBids,
+                           long averageWaitMillis, long maxWaitMillis, long notaryRetries, long notaryFailures,
+                           long lockRetries, long lockFailures) {
+        this.nftId = nftId;
+        this.queueDepth = queueDepth;
+        this.sequencedBids = sequencedBids;
+        this.rejectedBids = rejectedBids;
+        this.collapsedBids = collapsedBids;
+        this.averageWaitMillis = averageWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.notaryRetries = notaryRetries;
+        this.notaryFailures = notaryFailures;
+        this.lockRetries = lockRetries;
+        this.lockFailures = lockFailures;
+    }
+
+    public String getNftId() {
+        return nftId;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getSequencedBids() {
+        return sequencedBids;
+    }
+
+    public long getRejectedBids() {
+        return rejectedBids;
+    }
+
+    /**
+     * Bids that were outbid within a batching window and rejected without reaching the ledger, also counted in
+     * rejectedBids.
+     */
+    public long getCollapsedBids() {
+        return collapsedBids;
+    }
+
+    public long getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Times MakeBidFlow lost a notary conflict and retried the bid.
+     */
+    public long getNotaryRetries() {
+        return notaryRetries;
+    }
+
+    /**
+     * Bids that still lost a notary conflict on their last attempt.
+     */
+    public long getNotaryFailures() {
+        return notaryFailures;
+    }
+
+    /**
+     * Times MakeBidFlow found its inputs soft locked by another flow and retried the bid.
+     */
+    public long getLockRetries() {
+        return lockRetries;
+    }
+
+    /**
+     * Bids that failed locally because their inputs were still locked on their last attempt.
+     */
+    public long getLockFailures() {
+        return lockFailures;
+    }
+}
@@ -0,0 +1,95 @@
+package com.bestbid.services;
+
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Counters of the bids sequenced by {@link BidSequencer} and of the notary conflicts and locked inputs met by
+ * MakeBidFlow, per auction.
+ */
+@CordaService
+public class BidMetrics extends SingletonSerializeAsToken {
+
+    private final Map<String, AuctionCounters> countersByNftId = new ConcurrentHashMap<>();
+
+    public BidMetrics(AppServiceHub serviceHub) {
+    }
+
+    public void bidQueued(String nftId) {
+        counters(nftId).queueDepth.incrementAndGet();
+    }
+
+    public void bidStarted(String nftId, long waitMillis) {
+        AuctionCounters counters = counters(nftId);
+        counters.sequencedBids.incrementAndGet();
+        counters.totalWaitMillis.addAndGet(waitMillis);
+        counters.maxWaitMillis.accumulate(waitMillis);
+    }
+
+    public void bidFinished(String nftId, boolean rejected) {
+        AuctionCounters counters = counters(nftId);
+        counters.queueDepth.decrementAndGet();
+        if (rejected) {
+            counters.rejectedBids.incrementAndGet();
+        }
+    }
+
+    public void bidsCollapsed(String nftId, int collapsedBids) {
+        counters(nftId).collapsedBids.addAndGet(collapsedBids);
+    }
+
+    public void notaryConflictRetried(String nftId) {
+        counters(nftId).notaryRetries.incrementAndGet();
+    }
+
+    public void notaryConflictUnresolved(String nftId) {
+        counters(nftId).notaryFailures.incrementAndGet();
+    }
+
+    public void lockedInputsRetried(String nftId) {
+        counters(nftId).lockRetries.incrementAndGet();
+    }
+
+    public void lockedInputsUnresolved(String nftId) {
+        counters(nftId).lockFailures.incrementAndGet();
+    }
+
+    public List<AuctionBidStats> snapshot() {
+        List<AuctionBidStats> stats = new ArrayList<>(countersByNftId.size());
+        countersByNftId.forEach((nftId, counters) -> {
+            long sequencedBids = counters.sequencedBids.get();
+            long averageWaitMillis = sequencedBids == 0 ? 0 : counters.totalWaitMillis.get() / sequencedBids;
+            stats.add(new AuctionBidStats(nftId, counters.queueDepth.get(), sequencedBids,
+                    counters.rejectedBids.get(), counters.collapsedBids.get(), averageWaitMillis,
+                    counters.maxWaitMillis.get(), counters.notaryRetries.get(), counters.notaryFailures.get(),
+                    counters.lockRetries.get(), counters.lockFailures.get()));
+        });
+        return stats;
+    }
+
+    private AuctionCounters counters(String nftId) {
+        return countersByNftId.computeIfAbsent(nftId, key -> new AuctionCounters());
+    }
+
+    private static class AuctionCounters {
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final AtomicLong sequencedBids = new AtomicLong();
+        private final AtomicLong rejectedBids = new AtomicLong();
+        private final AtomicLong collapsedBids = new AtomicLong();
+        private final AtomicLong totalWaitMillis = new AtomicLong();
+        private final LongAccumulator maxWaitMillis = new LongAccumulator(Math::max, 0);
+        private final AtomicLong notaryRetries = new AtomicLong();
+        private final AtomicLong notaryFailures = new AtomicLong();
+        private final AtomicLong lockRetries = new AtomicLong();
+        private final AtomicLong lockFailures = new AtomicLong();
+    }
+}
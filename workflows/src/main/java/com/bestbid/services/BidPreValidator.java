@@ -0,0 +1,63 @@
+package com.bestbid.services;
+
+import com.bestbid.states.EvmAddress;
+import com.bestbid.states.NftState;
+import net.corda.core.node.ServiceHub;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Checks a bid against the latest NftState and funds of the bidder held by {@link UnconsumedStateIndex}, so a bid
+ * that can't win is rejected before a transaction is built, verified, signed or sent to the counterparty.
+ *
+ * The contracts still have the last word, this only turns away the bids they would certainly reject.
+ */
+public final class BidPreValidator {
+
+    private BidPreValidator() {
+    }
+
+    public static Optional<BidRejection> validate(ServiceHub serviceHub, BigDecimal amount, String bidder,
+                                                  String nftId) {
+        Optional<NftState> nft = serviceHub.cordaService(UnconsumedStateIndex.class).findNft(nftId)
+                .map(ref -> ref.getState().getData());
+        if (!nft.isPresent()) {
+            return reject(BidRejection.Reason.NFT_NOT_FOUND, "NFT with " + nftId + " doesn't exist");
+        }
+        return validate(serviceHub, nft.get(), amount, bidder);
+    }
+
+    public static Optional<BidRejection> validate(ServiceHub serviceHub, NftState nft, BigDecimal amount,
+                                                  String bidder) {
+        if (nft.isAuctionEnded()) {
+            return reject(BidRejection.Reason.AUCTION_ENDED, "You can't make a bid on a ended auction.");
+        }
+        if (nft.getAuctionEnd() != null && !serviceHub.getClock().instant().isBefore(nft.getAuctionEnd())) {
+            return reject(BidRejection.Reason.AUCTION_EXPIRED, "You can't make a bid after the end of the auction");
+        }
+        if (nft.getBidNumber() == 0 && amount.compareTo(nft.getMinimumBid()) < 0) {
+            return reject(BidRejection.Reason.BELOW_MINIMUM_BID,
+                    "Amount bidded must be equal or higher than minimum bid");
+        }
+        if (nft.getBidNumber() > 0 && nft.getCurrentBidder().equals(EvmAddress.normalise(bidder))) {
+            return reject(BidRejection.Reason.SAME_BIDDER, "New bidder cannot be the same as current bidder");
+        }
+        if (nft.getBidNumber() > 0 && amount.compareTo(nft.getCurrentBid()) <= 0) {
+            return reject(BidRejection.Reason.NOT_ABOVE_CURRENT_BID, "Amount bidded must be higher than current bid");
+        }
+
+        Optional<BigDecimal> funds = serviceHub.cordaService(UnconsumedStateIndex.class).findAccountFunds(bidder);
+        if (!funds.isPresent()) {
+            return reject(BidRejection.Reason.BIDDER_NOT_FOUND, "User with address " + bidder + " not found");
+        }
+        if (funds.get().compareTo(amount) < 0) {
+            return reject(BidRejection.Reason.INSUFFICIENT_FUNDS, "Bidder need to have enough funds");
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<BidRejection> reject(BidRejection.Reason reason, String message) {
+        return Optional.of(new BidRejection(reason, message));
+    }
+}
@@ -0,0 +1,20 @@
+package com.bestbid.services;
+
+import net.corda.core.flows.FlowException;
+
+/**
+ * A bid rejected by {@link BidPreValidator}, the reason travels with it to the RPC client.
+ */
+public class BidRejectedException extends FlowException {
+
+    private final BidRejection.Reason reason;
+
+    public BidRejectedException(String message, BidRejection.Reason reason) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public BidRejection.Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,44 @@
+package com.bestbid.services;
+
+/**
+ * Why a bid can't win against the current NftState and funds of the bidder, found by {@link BidPreValidator} before
+ * any transaction is built.
+ */
+public final class BidRejection {
+
+    public enum Reason {
+        NFT_NOT_FOUND,
+        AUCTION_ENDED,
+        AUCTION_EXPIRED,
+        SAME_BIDDER,
+        BELOW_MINIMUM_BID,
+        NOT_ABOVE_CURRENT_BID,
+        BIDDER_NOT_FOUND,
+        INSUFFICIENT_FUNDS
+    }
+
+    private final Reason reason;
+    private final String message;
+
+    public BidRejection(Reason reason, String message) {
+        this.reason = reason;
+        this.message = message;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public BidRejectedException toException() {
+        return new BidRejectedException(message, reason);
+    }
+
+    @Override
+    public String toString() {
+        return reason + ": " + message;
+    }
+}
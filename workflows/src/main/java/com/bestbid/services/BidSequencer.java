@@ -0,0 +1,249 @@
+package com.bestbid.services;
+
+import com.bestbid.flows.MakeBidFlow;
+import kotlin.Unit;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import net.corda.core.transactions.SignedTransaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the bids on an auction one at a time, in the order they arrive.
+ *
+ * Concurrent MakeBidFlows on the same NFT all pick the same NftState input and all but one of them fail at the
+ * notary. Here every nftId has a chain of bids, and a bid only starts its MakeBidFlow when the previous one on the
+ * same NFT has finished, so it builds on the latest NftState. Before starting the flow the bid is checked against
+ * that state by {@link BidPreValidator} and rejected right away if it can't win.
+ *
+ * When the CorDapp config sets bidBatchWindowMillis, the bids arriving on an NFT within that window are run as one:
+ * only the highest valid bid is recorded, with a MakeBatchedBid command, and the others are rejected off-ledger.
+ */
+@CordaService
+public class BidSequencer extends SingletonSerializeAsToken {
+
+    private static final int REMEMBERED_BIDS = 10_000;
+
+    private final AppServiceHub serviceHub;
+    private final long batchWindowMillis;
+    private final Map<String, CompletableFuture<?>> tailsByNftId = new ConcurrentHashMap<>();
+    private final Map<String, List<QueuedBid>> openBatchesByNftId = new HashMap<>();
+    private final Map<String, CompletableFuture<SignedTransaction>> bidsByDeduplicationId = new LinkedHashMap<
+            String, CompletableFuture<SignedTransaction>>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<SignedTransaction>> eldest) {
+            return size() > REMEMBERED_BIDS;
+        }
+    };
+    private ScheduledExecutorService batchCloser;
+
+    public BidSequencer(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        this.batchWindowMillis = CordappSettings.getLong(serviceHub.getAppContext().getConfig(),
+                CordappSettings.BID_BATCH_WINDOW_MILLIS, 0);
+        serviceHub.registerUnloadHandler(() -> {
+            stopBatchCloser();
+            return Unit.INSTANCE;
+        });
+    }
+
+    /**
+     * Queues a bid, a repeat of the same deduplicationId (a replay of the flow waiting for it) gets the bid already
+     * queued instead of a second one. Only the last 10k bids are remembered, and none survive a restart: a bid replayed
+     * after a restart is queued again and rejected by {@link BidPreValidator} once the first one is recorded, as the
+     * bidder already holds the bid.
+     */
+    public CompletableFuture<SignedTransaction> submit(String deduplicationId, String bidAmount, String bidder,
+                                                       String nftId, Party receiver) {
+        QueuedBid bid = new QueuedBid(new BigDecimal(bidAmount), bidder, nftId, receiver);
+        synchronized (bidsByDeduplicationId) {
+            CompletableFuture<SignedTransaction> queued = bidsByDeduplicationId.get(deduplicationId);
+            if (queued != null) {
+                return queued;
+            }
+            bidsByDeduplicationId.put(deduplicationId, bid.result);
+        }
+
+        BidMetrics metrics = serviceHub.cordaService(BidMetrics.class);
+        metrics.bidQueued(nftId);
+        bid.result.whenComplete((result, error) -> metrics.bidFinished(nftId, error != null));
+        if (batchWindowMillis > 0) {
+            addToBatch(bid);
+        } else {
+            enqueue(nftId, () -> runAlone(bid));
+        }
+        return bid.result;
+    }
+
+    /**
+     * Chains the work after the tail of the NFT. The new tail is swapped in atomically and the work chained outside
+     * of the map, so a work starting right away (the previous tail is done) doesn't run while the map is locked.
+     */
+    private void enqueue(String nftId, Supplier<CompletableFuture<?>> work) {
+        CompletableFuture<Void> tail = new CompletableFuture<>();
+        CompletableFuture<?> previous = tailsByNftId.put(nftId, tail);
+        CompletableFuture<?> after = previous == null ? CompletableFuture.completedFuture(null) : previous;
+        after.handle((result, error) -> null)
+                .thenCompose(ignored -> work.get())
+                .whenComplete((result, error) -> {
+                    tailsByNftId.remove(nftId, tail);
+                    tail.complete(null);
+                });
+    }
+
+    private void addToBatch(QueuedBid bid) {
+        synchronized (openBatchesByNftId) {
+            List<QueuedBid> batch = openBatchesByNftId.get(bid.nftId);
+            if (batch == null) {
+                batch = new ArrayList<>();
+                openBatchesByNftId.put(bid.nftId, batch);
+                if (batchCloser == null) {
+                    batchCloser = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "bid-batch-closer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+                batchCloser.schedule(() -> closeBatch(bid.nftId), batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+            batch.add(bid);
+        }
+    }
+
+    private void stopBatchCloser() {
+        synchronized (openBatchesByNftId) {
+            if (batchCloser != null) {
+                batchCloser.shutdownNow();
+            }
+        }
+    }
+
+    private void closeBatch(String nftId) {
+        List<QueuedBid> batch;
+        synchronized (openBatchesByNftId) {
+            batch = openBatchesByNftId.remove(nftId);
+        }
+        enqueue(nftId, () -> runBatch(batch));
+    }
+
+    private CompletableFuture<?> runAlone(QueuedBid bid) {
+        bid.started();
+        try {
+            rejectIfInvalid(bid);
+        } catch (FlowException e) {
+            bid.result.completeExceptionally(e);
+            return bid.result;
+        }
+        return runFlow(bid, new MakeBidFlow.Initiator(bid.amount.toString(), bid.bidder, bid.nftId, bid.receiver));
+    }
+
+    /**
+     * Records the highest valid bid of the batch and rejects every other one. Bids with the same amount are won by
+     * the one that arrived first.
+     */
+    private CompletableFuture<Void> runBatch(List<QueuedBid> batch) {
+        List<QueuedBid> byAmount = new ArrayList<>(batch);
+        byAmount.sort(Comparator.comparing((QueuedBid bid) -> bid.amount).reversed());
+        byAmount.forEach(QueuedBid::started);
+        return runHighest(byAmount, 0);
+    }
+
+    /**
+     * Runs the highest valid bid from the given position on. The bids below it are only rejected once it is recorded,
+     * when its flow fails the next highest one is run instead.
+     */
+    private CompletableFuture<Void> runHighest(List<QueuedBid> byAmount, int from) {
+        for (int i = from; i < byAmount.size(); i++) {
+            QueuedBid candidate = byAmount.get(i);
+            try {
+                rejectIfInvalid(candidate);
+            } catch (FlowException e) {
+                candidate.result.completeExceptionally(e);
+                continue;
+            }
+
+            List<QueuedBid> below = byAmount.subList(i + 1, byAmount.size());
+            int next = i + 1;
+            BigDecimal highestBelow = below.isEmpty() ? null : below.get(0).amount;
+            return runFlow(candidate, new MakeBidFlow.Initiator(candidate.amount.toString(), candidate.bidder,
+                    candidate.nftId, candidate.receiver, below.size(), highestBelow))
+                    .handle((result, error) -> error)
+                    .thenCompose(error -> {
+                        if (error != null) {
+                            return runHighest(byAmount, next);
+                        }
+                        for (QueuedBid outbid : below) {
+                            outbid.result.completeExceptionally(new FlowException("Outbid by a bid of "
+                                    + candidate.amount + " made within the same batch window"));
+                        }
+                        serviceHub.cordaService(BidMetrics.class).bidsCollapsed(candidate.nftId, below.size());
+                        return CompletableFuture.completedFuture(null);
+                    });
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private CompletableFuture<?> runFlow(QueuedBid bid, FlowLogic<SignedTransaction> flow) {
+        try {
+            serviceHub.startFlow(flow).getReturnValue().then(future -> {
+                try {
+                    bid.result.complete(future.get());
+                } catch (ExecutionException e) {
+                    bid.result.completeExceptionally(e.getCause());
+                } catch (Exception e) {
+                    bid.result.completeExceptionally(e);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            bid.result.completeExceptionally(e);
+        }
+        return bid.result;
+    }
+
+    private void rejectIfInvalid(QueuedBid bid) throws FlowException {
+        Optional<BidRejection> rejection = BidPreValidator.validate(serviceHub, bid.amount, bid.bidder, bid.nftId);
+        if (rejection.isPresent()) {
+            throw rejection.get().toException();
+        }
+    }
+
+    private class QueuedBid {
+        private final BigDecimal amount;
+        private final String bidder;
+        private final String nftId;
+        private final Party receiver;
+        private final long queuedAt = System.nanoTime();
+        private final CompletableFuture<SignedTransaction> result = new CompletableFuture<>();
+
+        private QueuedBid(BigDecimal amount, String bidder, String nftId, Party receiver) {
+            this.amount = amount;
+            this.bidder = bidder;
+            this.nftId = nftId;
+            this.receiver = receiver;
+        }
+
+        private void started() {
+            serviceHub.cordaService(BidMetrics.class).bidStarted(nftId,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt));
+        }
+    }
+}
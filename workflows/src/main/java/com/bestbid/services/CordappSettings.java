@@ -0,0 +1,38 @@
+package com.bestbid.services;
+
+import net.corda.core.cordapp.CordappConfig;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads optional entries of the CorDapp config (cordapps/config/&lt;cordapp&gt;.conf on the node), falling back to a
+ * default when the entry is missing.
+ */
+public final class CordappSettings {
+
+    public static final String BID_BATCH_WINDOW_MILLIS = "bidBatchWindowMillis";
+    public static final String BID_RETRY_ATTEMPTS = "bidRetryAttempts";
+    public static final String BID_RETRY_BACKOFF_MILLIS = "bidRetryBackoffMillis";
+    public static final String ACCOUNT_FUND_COINS = "accountFundCoins";
+    public static final String FUND_COIN_MERGE_INTERVAL_SECONDS = "fundCoinMergeIntervalSeconds";
+    public static final String NOTARIES = "notaries";
+
+    private CordappSettings() {
+    }
+
+    public static long getLong(CordappConfig config, String path, long defaultValue) {
+        return config.exists(path) ? config.getLong(path) : defaultValue;
+    }
+
+    public static List<String> getStringList(CordappConfig config, String path, List<String> defaultValue) {
+        if (!config.exists(path)) {
+            return defaultValue;
+        }
+        Object value = config.get(path);
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("CorDapp config entry " + path + " must be a list");
+        }
+        return ((List<?>) value).stream().map(Object::toString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,115 @@
+package com.bestbid.services;
+
+import com.bestbid.flows.AccountsFunds.MergeFundsFlow;
+import com.bestbid.states.AccountsFundsState;
+import kotlin.Unit;
+import net.corda.core.identity.Party;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.node.services.ServiceLifecycleEvent;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges the coins of the addresses holding more than accountFundCoins of them, with {@link MergeFundsFlow}.
+ * Deposits and refunds open a new coin when every coin of the address is in use, so without merging the number of
+ * coins would keep growing.
+ *
+ * Runs every fundCoinMergeIntervalSeconds (CorDapp config, defaults to 60, 0 turns it off). Only the node that
+ * issued the largest coin of an address merges it, so both parties of an account don't race for the same coins.
+ */
+@CordaService
+public class FundCoinMerger extends SingletonSerializeAsToken {
+
+    private static final Logger logger = LoggerFactory.getLogger(FundCoinMerger.class);
+
+    private final AppServiceHub serviceHub;
+    private final long targetCoins;
+    private final Set<String> mergingAddresses = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+
+    public FundCoinMerger(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        this.targetCoins = CordappSettings.getLong(serviceHub.getAppContext().getConfig(),
+                CordappSettings.ACCOUNT_FUND_COINS, 1);
+        long intervalSeconds = CordappSettings.getLong(serviceHub.getAppContext().getConfig(),
+                CordappSettings.FUND_COIN_MERGE_INTERVAL_SECONDS, 60);
+        if (intervalSeconds > 0) {
+            serviceHub.register(AppServiceHub.SERVICE_PRIORITY_NORMAL, event -> {
+                if (event == ServiceLifecycleEvent.STATE_MACHINE_STARTED) {
+                    startScheduler(intervalSeconds);
+                }
+            });
+            serviceHub.registerUnloadHandler(() -> {
+                stopScheduler();
+                return Unit.INSTANCE;
+            });
+        }
+    }
+
+    private synchronized void startScheduler(long intervalSeconds) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fund-coin-merger");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::mergeCoinsOnSchedule, intervalSeconds, intervalSeconds,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void stopScheduler() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * An exception escaping a scheduled run would cancel every later run, so it is logged and the next run tries again.
+     */
+    private void mergeCoinsOnSchedule() {
+        try {
+            mergeCoins();
+        } catch (RuntimeException e) {
+            logger.warn("Scheduled merge of fund coins failed, retrying in the next run", e);
+        }
+    }
+
+    /**
+     * Starts a merge for every address over the target that isn't being merged already.
+     */
+    public void mergeCoins() {
+        Party me = serviceHub.getMyInfo().getLegalIdentities().get(0);
+        UnconsumedStateIndex index = serviceHub.cordaService(UnconsumedStateIndex.class);
+        for (String address : index.addressesWithMoreCoinsThan(targetCoins)) {
+            Optional<AccountsFundsState> largestCoin = index.findAccount(address).map(ref -> ref.getState().getData());
+            if (!largestCoin.isPresent() || !largestCoin.get().getSender().equals(me) || !mergingAddresses.add(address)) {
+                continue;
+            }
+            try {
+                serviceHub.startFlow(new MergeFundsFlow.Initiator(address, largestCoin.get().getReceiver()))
+                        .getReturnValue().then(future -> {
+                            mergingAddresses.remove(address);
+                            try {
+                                future.get();
+                            } catch (Exception e) {
+                                logger.debug("Coins of {} not merged", address, e);
+                            }
+                            return null;
+                        });
+            } catch (Exception e) {
+                mergingAddresses.remove(address);
+                logger.warn("Couldn't start the merge of the coins of {}", address, e);
+            }
+        }
+    }
+}
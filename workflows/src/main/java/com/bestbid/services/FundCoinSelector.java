@@ -0,0 +1,122 @@
+package com.bestbid.services;
+
+import com.bestbid.states.AccountsFundsState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.flows.FlowException;
+import net.corda.core.node.ServiceHub;
+import net.corda.core.node.services.StatesNotAvailableException;
+import net.corda.core.utilities.NonEmptySet;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Picks the AccountsFundsStates ("coins") of an address a flow spends. Picked coins are soft locked for the flow,
+ * and coins already locked by another flow are skipped, so concurrent flows on the same address spend different
+ * coins instead of racing for the same one.
+ */
+public final class FundCoinSelector {
+
+    private static final Comparator<StateAndRef<AccountsFundsState>> BY_FUNDS =
+            Comparator.comparing(ref -> ref.getState().getData().getFunds());
+
+    private FundCoinSelector() {
+    }
+
+    /**
+     * Reserves coins of the address, largest first, until they cover the amount. When the address doesn't hold
+     * enough funds every coin is reserved, so the contract rejects the transaction.
+     *
+     * @throws StatesNotAvailableException when the address holds enough funds but some of them are locked by other
+     * flows.
+     */
+    public static List<StateAndRef<AccountsFundsState>> reserveCovering(ServiceHub serviceHub, UUID lockId,
+                                                                        String evmAddress, BigDecimal amount)
+            throws FlowException {
+        List<StateAndRef<AccountsFundsState>> coins = serviceHub.cordaService(UnconsumedStateIndex.class)
+                .findAccountCoins(evmAddress);
+        if (coins.isEmpty()) {
+            throw new FlowException("User with address " + evmAddress + " not found");
+        }
+        coins.sort(BY_FUNDS.reversed());
+
+        if (sumOfFunds(coins).compareTo(amount) < 0) {
+            reserve(serviceHub, lockId, coins);
+            return coins;
+        }
+
+        List<StateAndRef<AccountsFundsState>> selected = new ArrayList<>();
+        BigDecimal covered = BigDecimal.ZERO;
+        for (StateAndRef<AccountsFundsState> coin : coins) {
+            if (!selected.isEmpty() && covered.compareTo(amount) >= 0) {
+                break;
+            }
+            if (tryReserve(serviceHub, lockId, coin)) {
+                selected.add(coin);
+                covered = covered.add(coin.getState().getData().getFunds());
+            }
+        }
+        if (selected.isEmpty() || covered.compareTo(amount) < 0) {
+            throw new StatesNotAvailableException("Funds of " + evmAddress + " are locked by other flows", null);
+        }
+        return selected;
+    }
+
+    /**
+     * Reserves the coin a deposit or a refund of the address is added to, the smallest one first. Empty while the
+     * address holds fewer coins than targetCoins, or when every coin is locked by another flow: the funds then go to
+     * a new coin instead of waiting, and {@link FundCoinMerger} merges the extra coins later on.
+     */
+    public static Optional<StateAndRef<AccountsFundsState>> reserveToTopUp(ServiceHub serviceHub, UUID lockId,
+                                                                           String evmAddress, long targetCoins) {
+        List<StateAndRef<AccountsFundsState>> coins = serviceHub.cordaService(UnconsumedStateIndex.class)
+                .findAccountCoins(evmAddress);
+        if (coins.size() < targetCoins) {
+            return Optional.empty();
+        }
+        coins.sort(BY_FUNDS);
+        return coins.stream().filter(coin -> tryReserve(serviceHub, lockId, coin)).findFirst();
+    }
+
+    /**
+     * Reserves every coin of the address that isn't locked by another flow, the smallest first.
+     */
+    public static List<StateAndRef<AccountsFundsState>> reserveUnlocked(ServiceHub serviceHub, UUID lockId,
+                                                                        String evmAddress) {
+        List<StateAndRef<AccountsFundsState>> coins = serviceHub.cordaService(UnconsumedStateIndex.class)
+                .findAccountCoins(evmAddress);
+        coins.sort(BY_FUNDS);
+        List<StateAndRef<AccountsFundsState>> reserved = new ArrayList<>();
+        for (StateAndRef<AccountsFundsState> coin : coins) {
+            if (tryReserve(serviceHub, lockId, coin)) {
+                reserved.add(coin);
+            }
+        }
+        return reserved;
+    }
+
+    public static BigDecimal sumOfFunds(List<StateAndRef<AccountsFundsState>> coins) {
+        return coins.stream().map(ref -> ref.getState().getData().getFunds()).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static boolean tryReserve(ServiceHub serviceHub, UUID lockId, StateAndRef<AccountsFundsState> coin) {
+        try {
+            serviceHub.getVaultService().softLockReserve(lockId, NonEmptySet.of(coin.getRef()));
+            return true;
+        } catch (StatesNotAvailableException e) {
+            return false;
+        }
+    }
+
+    private static void reserve(ServiceHub serviceHub, UUID lockId, List<StateAndRef<AccountsFundsState>> coins)
+            throws StatesNotAvailableException {
+        List<StateRef> refs = new ArrayList<>();
+        coins.forEach(coin -> refs.add(coin.getRef()));
+        serviceHub.getVaultService().softLockReserve(lockId, NonEmptySet.copyOf(refs));
+    }
+}
@@ -0,0 +1,41 @@
+package com.bestbid.services;
+
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Notaries of the network by name, resolved from the network map cache once and kept until the network map changes,
+ * so flows don't look them up on every run.
+ */
+@CordaService
+public class NetworkContext extends SingletonSerializeAsToken {
+
+    private final AppServiceHub serviceHub;
+    private final Map<CordaX500Name, Party> notariesByName = new ConcurrentHashMap<>();
+
+    public NetworkContext(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        serviceHub.getNetworkMapCache().getChanged().subscribe(change -> notariesByName.clear());
+    }
+
+    /**
+     * Names missing from the network map aren't cached, they are looked up again until they show up.
+     */
+    public Optional<Party> notary(CordaX500Name name) {
+        Party notary = notariesByName.get(name);
+        if (notary == null) {
+            notary = serviceHub.getNetworkMapCache().getNotary(name);
+            if (notary != null) {
+                notariesByName.put(name, notary);
+            }
+        }
+        return Optional.ofNullable(notary);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bestbid.services;
+
+import com.bestbid.states.EvmAddress;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.flows.FlowException;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Spreads new states across the notaries of the CorDapp config (notaries, defaults to the single
+ * O=Notary,L=London,C=GB) by consistent hashing of their nftId or evm address, so adding a notary only moves a share
+ * of the new auctions and accounts to it. States keep the notary they were issued on: transactions consuming states
+ * use the notary of their inputs, and inputs living on another notary are moved with NotaryChangeFlow first.
+ */
+@CordaService
+public class NotarySelector extends SingletonSerializeAsToken {
+
+    public static final String DEFAULT_NOTARY = "O=Notary,L=London,C=GB";
+    private static final int VIRTUAL_NODES_PER_NOTARY = 128;
+
+    private final AppServiceHub serviceHub;
+    private final NavigableMap<Long, CordaX500Name> ring = new TreeMap<>();
+
+    public NotarySelector(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        List<String> notaries = CordappSettings.getStringList(serviceHub.getAppContext().getConfig(),
+                CordappSettings.NOTARIES, Collections.singletonList(DEFAULT_NOTARY));
+        if (notaries.isEmpty()) {
+            throw new IllegalArgumentException("CorDapp config entry " + CordappSettings.NOTARIES + " can't be empty");
+        }
+        for (String notary : notaries) {
+            CordaX500Name name = CordaX500Name.parse(notary);
+            for (int i = 0; i < VIRTUAL_NODES_PER_NOTARY; i++) {
+                ring.put(hash(name + "#" + i), name);
+            }
+        }
+    }
+
+    public Party notaryForNft(String nftId) throws FlowException {
+        return resolve(notaryFor(nftId));
+    }
+
+    public Party notaryForAccount(String evmAddress) throws FlowException {
+        return resolve(notaryFor(EvmAddress.normalise(evmAddress)));
+    }
+
+    /**
+     * The notary holding most of the given states, so the fewest of them have to change notary to be spent together.
+     * Ties are won by the notary of the first state.
+     */
+    public static Party notaryHoldingMost(List<? extends StateAndRef<?>> states) {
+        Map<Party, Integer> statesByNotary = new LinkedHashMap<>();
+        states.forEach(ref -> statesByNotary.merge(ref.getState().getNotary(), 1, Integer::sum));
+        Party notary = null;
+        int mostStates = 0;
+        for (Map.Entry<Party, Integer> entry : statesByNotary.entrySet()) {
+            if (entry.getValue() > mostStates) {
+                notary = entry.getKey();
+                mostStates = entry.getValue();
+            }
+        }
+        if (notary == null) {
+            throw new IllegalArgumentException("No states to pick a notary from");
+        }
+        return notary;
+    }
+
+    CordaX500Name notaryFor(String key) {
+        Map.Entry<Long, CordaX500Name> entry = ring.ceilingEntry(hash(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    private Party resolve(CordaX500Name name) throws FlowException {
+        return serviceHub.cordaService(NetworkContext.class).notary(name)
+                .orElseThrow(() -> new FlowException("Notary " + name + " not found in the network map"));
+    }
+
+    private static long hash(String key) {
+        return ByteBuffer.wrap(SecureHash.sha256(key).getBytes()).getLong();
+    }
+}
@@ -0,0 +1,97 @@
+package com.bestbid.services;
+
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.flows.FlowException;
+import net.corda.core.node.ServiceHub;
+import net.corda.core.transactions.SignedTransaction;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Checks a transaction proposed by the counterparty against the UnconsumedStateIndex of the node before it is signed,
+ * so proposals built on states the node already saw spent are refused without a vault query nor a round trip to the
+ * notary. An input must be the state the index holds as current for its nftId or address, and must not be spent by
+ * another proposal the node signed that isn't notarised yet. A node lagging behind the counterparty may not know yet
+ * of the states a proposal spends, those are left to the notary.
+ */
+public final class ProposalValidator {
+
+    private ProposalValidator() {
+    }
+
+    /**
+     * Reserves the inputs of the accepted transaction, they have to be given back with {@link #release} once its
+     * finality is over.
+     *
+     * @throws StaleProposalException when the transaction spends a state the node saw consumed, or one spent by
+     * another proposal awaiting notarisation.
+     * @throws FlowException when the transaction issues an NftState with the id of an NftState the node already holds.
+     */
+    public static void validate(ServiceHub serviceHub, SignedTransaction stx) throws FlowException {
+        UnconsumedStateIndex index = serviceHub.cordaService(UnconsumedStateIndex.class);
+
+        List<StateRef> inputs = stx.getInputs();
+        for (StateRef input : inputs) {
+            if (index.isRecentlyConsumed(input) || !isCurrent(serviceHub, index, input)) {
+                throw new StaleProposalException("Input " + input + " is already consumed, the proposal is stale");
+            }
+        }
+        Optional<SecureHash> otherProposal = index.reserveInputs(stx.getId(), inputs);
+        if (otherProposal.isPresent()) {
+            throw new StaleProposalException("The inputs of the proposal are already spent by proposal "
+                    + otherProposal.get() + ", which awaits notarisation");
+        }
+
+        if (inputs.isEmpty()) {
+            Set<String> nftIds = stx.getTx().outputsOfType(NftState.class).stream()
+                    .map(NftState::getNftId)
+                    .collect(Collectors.toSet());
+            if (nftIds.isEmpty()) {
+                return;
+            }
+            Set<String> existing = new TreeSet<>(index.findExistingNftIds(nftIds));
+            if (existing.size() == 1) {
+                throw new FlowException("Nft with id " + existing.iterator().next() + " is already created");
+            } else if (!existing.isEmpty()) {
+                throw new FlowException("Nfts with ids " + existing + " are already created");
+            }
+        }
+    }
+
+    /**
+     * Releases the inputs reserved by {@link #validate}, to be called once the finality of the transaction is over,
+     * whether or not it was notarised.
+     */
+    public static void release(ServiceHub serviceHub, SignedTransaction stx) {
+        serviceHub.cordaService(UnconsumedStateIndex.class).releaseInputs(stx.getId(), stx.getInputs());
+    }
+
+    /**
+     * Whether the input is the NftState the index holds for its nftId, or one of the coins it holds for its address.
+     * Inputs from a transaction the node hasn't recorded can't be resolved and are taken as current.
+     */
+    private static boolean isCurrent(ServiceHub serviceHub, UnconsumedStateIndex index, StateRef input) {
+        if (serviceHub.getValidatedTransactions().getTransaction(input.getTxhash()) == null) {
+            return true;
+        }
+        ContractState state = serviceHub.loadState(input).getData();
+        if (state instanceof NftState) {
+            return index.findNft(((NftState) state).getNftId())
+                    .map(current -> current.getRef().equals(input))
+                    .orElse(false);
+        }
+        if (state instanceof AccountsFundsState) {
+            return index.findAccountCoins(((AccountsFundsState) state).getEvmAddress()).stream()
+                    .anyMatch(coin -> coin.getRef().equals(input));
+        }
+        return true;
+    }
+}
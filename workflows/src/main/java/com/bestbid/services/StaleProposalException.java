@@ -0,0 +1,14 @@
+package com.bestbid.services;
+
+import net.corda.core.flows.FlowException;
+
+/**
+ * A proposal refused by the counterparty with {@link ProposalValidator} because it spends states the counterparty
+ * already saw consumed. It is the same conflict the notary would have reported, caught before signing.
+ */
+public class StaleProposalException extends FlowException {
+
+    public StaleProposalException(String message) {
+        super(message);
+    }
+}
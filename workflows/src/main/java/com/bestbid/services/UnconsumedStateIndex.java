@@ -0,0 +1,268 @@
+package com.bestbid.services;
+
+import com.bestbid.schema.StateQueries;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.EvmAddress;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.node.services.ServiceLifecycleEvent;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the current (unconsumed) NftState of every nftId and the AccountsFundsStates ("coins") of every evm address
+ * in memory, so flows can resolve their inputs without querying the vault.
+ *
+ * The maps are seeded from the vault once the state machine has started and are kept up to date from the vault's
+ * updates. Those are only published once the database transaction recording them commits, so a recording that is
+ * rolled back (e.g. a flow retried from its checkpoint) never reaches the index. Lookups made before the seeding has
+ * finished fall back to an indexed vault query on the nft_id or evm_address column of the states, which also finds
+ * the states recorded before they were linear. The seeding pages are sorted by state ref, so none is skipped.
+ */
+@CordaService
+public class UnconsumedStateIndex extends SingletonSerializeAsToken {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnconsumedStateIndex.class);
+    private static final int QUERY_PAGE_SIZE = 1000;
+    private static final int RECENTLY_CONSUMED = 10_000;
+
+    private final AppServiceHub serviceHub;
+    private final Map<String, StateAndRef<NftState>> nftsById = new ConcurrentHashMap<>();
+    private final Map<String, Set<StateAndRef<AccountsFundsState>>> coinsByAddress = new ConcurrentHashMap<>();
+    private final Set<StateRef> consumedBeforeSeeding = ConcurrentHashMap.newKeySet();
+    private final Set<StateRef> recentlyConsumed = Collections.synchronizedSet(Collections.newSetFromMap(
+            new LinkedHashMap<StateRef, Boolean>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<StateRef, Boolean> eldest) {
+                    return size() > RECENTLY_CONSUMED;
+                }
+            }));
+    private final Map<StateRef, SecureHash> proposedInputs = new ConcurrentHashMap<>();
+    private volatile boolean seeded = false;
+
+    public UnconsumedStateIndex(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        serviceHub.getVaultService().getUpdates().subscribe(this::onVaultUpdate);
+        serviceHub.register(AppServiceHub.SERVICE_PRIORITY_NORMAL, event -> {
+            if (event == ServiceLifecycleEvent.STATE_MACHINE_STARTED) {
+                seed();
+            }
+        });
+    }
+
+    public Optional<StateAndRef<NftState>> findNft(String nftId) {
+        if (seeded) {
+            return Optional.ofNullable(nftsById.get(nftId));
+        }
+        return queryLatest(NftState.class, StateQueries.nftById(nftId));
+    }
+
+    /**
+     * The ids of the given ones that already have an NftState. Before the index is seeded this is a single vault
+     * query for all of them.
+     */
+    public Set<String> findExistingNftIds(Collection<String> nftIds) {
+        return new HashSet<>(findNfts(nftIds).keySet());
+    }
+
+    /**
+     * The NftStates of the given ids by nftId, ids without one are left out. Before the index is seeded this is a
+     * single vault query for all of them.
+     */
+    public Map<String, StateAndRef<NftState>> findNfts(Collection<String> nftIds) {
+        Map<String, StateAndRef<NftState>> found = new HashMap<>();
+        if (nftIds.isEmpty()) {
+            return found;
+        }
+        if (seeded) {
+            nftIds.forEach(nftId -> {
+                StateAndRef<NftState> nft = nftsById.get(nftId);
+                if (nft != null) {
+                    found.put(nftId, nft);
+                }
+            });
+            return found;
+        }
+        serviceHub.getVaultService().queryBy(NftState.class, StateQueries.nftsByIds(nftIds),
+                StateQueries.first(Math.max(1, nftIds.size()))).getStates()
+                .forEach(ref -> found.put(ref.getState().getData().getNftId(), ref));
+        return found;
+    }
+
+    /**
+     * The coin of the address holding the most funds. With a single coin per address (the default) this is the
+     * account itself.
+     */
+    public Optional<StateAndRef<AccountsFundsState>> findAccount(String evmAddress) {
+        return findAccountCoins(evmAddress).stream().max(Comparator.comparing(ref -> ref.getState().getData().getFunds()));
+    }
+
+    public List<StateAndRef<AccountsFundsState>> findAccountCoins(String evmAddress) {
+        if (seeded) {
+            Set<StateAndRef<AccountsFundsState>> coins = coinsByAddress.get(EvmAddress.normalise(evmAddress));
+            return coins == null ? Collections.emptyList() : new ArrayList<>(coins);
+        }
+        return queryAll(AccountsFundsState.class, StateQueries.coinsByAddress(evmAddress));
+    }
+
+    /**
+     * The funds of every coin of the address added up, empty when the address has no coin.
+     */
+    public Optional<BigDecimal> findAccountFunds(String evmAddress) {
+        List<StateAndRef<AccountsFundsState>> coins = findAccountCoins(evmAddress);
+        if (coins.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(coins.stream().map(ref -> ref.getState().getData().getFunds())
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    /**
+     * Whether the state was consumed by one of the last 10k states consumed in the vault. States consumed before that,
+     * or before the node started, aren't remembered and are reported as not consumed.
+     */
+    public boolean isRecentlyConsumed(StateRef ref) {
+        return recentlyConsumed.contains(ref);
+    }
+
+    /**
+     * Reserves the inputs of a proposal the node is about to sign until it is recorded or released, so a second
+     * proposal spending them before the first is notarised can be refused. Reserving them again for the same proposal
+     * (a replay of the flow signing it) succeeds.
+     *
+     * @return the id of the proposal already holding one of the inputs, in which case none of them is reserved.
+     */
+    public synchronized Optional<SecureHash> reserveInputs(SecureHash txId, List<StateRef> inputs) {
+        List<StateRef> reserved = new ArrayList<>();
+        for (StateRef input : inputs) {
+            SecureHash holder = proposedInputs.putIfAbsent(input, txId);
+            if (holder == null) {
+                reserved.add(input);
+            } else if (!holder.equals(txId)) {
+                reserved.forEach(ref -> proposedInputs.remove(ref, txId));
+                return Optional.of(holder);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Releases the inputs reserved for the proposal, once its finality is over whether or not it was notarised.
+     */
+    public void releaseInputs(SecureHash txId, List<StateRef> inputs) {
+        inputs.forEach(input -> proposedInputs.remove(input, txId));
+    }
+
+    /**
+     * Addresses split in more coins than the given amount, only tracked once the index is seeded.
+     */
+    public List<String> addressesWithMoreCoinsThan(long coins) {
+        List<String> addresses = new ArrayList<>();
+        coinsByAddress.forEach((address, addressCoins) -> {
+            if (addressCoins.size() > coins) {
+                addresses.add(address);
+            }
+        });
+        return addresses;
+    }
+
+    /**
+     * Used until the index is seeded: a single-row query on an indexed column of the state.
+     */
+    private <T extends ContractState> Optional<StateAndRef<T>> queryLatest(Class<T> stateClass, QueryCriteria criteria) {
+        List<StateAndRef<T>> states = serviceHub.getVaultService()
+                .queryBy(stateClass, criteria, StateQueries.first(1)).getStates();
+        return states.isEmpty() ? Optional.empty() : Optional.of(states.get(0));
+    }
+
+    /**
+     * Loads every unconsumed state from the vault. Entries already put by a vault update are newer than the
+     * snapshot, so they are kept, and coins consumed by an update meanwhile are not added back.
+     */
+    private synchronized void seed() {
+        if (seeded) {
+            return;
+        }
+        queryAll(NftState.class, StateQueries.unconsumed())
+                .forEach(ref -> nftsById.putIfAbsent(ref.getState().getData().getNftId(), ref));
+        queryAll(AccountsFundsState.class, StateQueries.unconsumed()).stream()
+                .filter(ref -> !consumedBeforeSeeding.contains(ref.getRef()))
+                .forEach(this::addCoin);
+        seeded = true;
+        consumedBeforeSeeding.clear();
+        logger.info("Unconsumed state index seeded with {} NFTs and {} accounts", nftsById.size(), coinsByAddress.size());
+    }
+
+    private <T extends ContractState> List<StateAndRef<T>> queryAll(Class<T> stateClass, QueryCriteria criteria) {
+        List<StateAndRef<T>> states = new ArrayList<>();
+        int pageNumber = 1;
+        Vault.Page<T> page;
+        do {
+            page = serviceHub.getVaultService().queryBy(stateClass, criteria,
+                    new PageSpecification(pageNumber, QUERY_PAGE_SIZE), StateQueries.byStateRef());
+            states.addAll(page.getStates());
+            pageNumber++;
+        } while ((long) (pageNumber - 1) * QUERY_PAGE_SIZE < page.getTotalStatesAvailable());
+        return states;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onVaultUpdate(Vault.Update<ContractState> update) {
+        for (StateAndRef<ContractState> consumed : update.getConsumed()) {
+            recentlyConsumed.add(consumed.getRef());
+            proposedInputs.remove(consumed.getRef());
+            ContractState data = consumed.getState().getData();
+            if (data instanceof NftState) {
+                nftsById.remove(((NftState) data).getNftId(), consumed);
+            } else if (data instanceof AccountsFundsState) {
+                if (!seeded) {
+                    consumedBeforeSeeding.add(consumed.getRef());
+                }
+                removeCoin((StateAndRef<AccountsFundsState>) (StateAndRef<?>) consumed);
+            }
+        }
+        for (StateAndRef<ContractState> produced : update.getProduced()) {
+            ContractState data = produced.getState().getData();
+            if (data instanceof NftState) {
+                nftsById.put(((NftState) data).getNftId(), (StateAndRef<NftState>) (StateAndRef<?>) produced);
+            } else if (data instanceof AccountsFundsState) {
+                addCoin((StateAndRef<AccountsFundsState>) (StateAndRef<?>) produced);
+            }
+        }
+    }
+
+    private void addCoin(StateAndRef<AccountsFundsState> coin) {
+        coinsByAddress.computeIfAbsent(coin.getState().getData().getEvmAddress(), address -> ConcurrentHashMap.newKeySet())
+                .add(coin);
+    }
+
+    private void removeCoin(StateAndRef<AccountsFundsState> coin) {
+        coinsByAddress.computeIfPresent(coin.getState().getData().getEvmAddress(), (address, coins) -> {
+            coins.remove(coin);
+            return coins.isEmpty() ? null : coins;
+        });
+    }
+}
@@ -113,6 +113,32 @@ public class AddFundsFlowTests {
         }
     }
 
+    @Test
+    public void givenAnAlreadyRegisteredAddres_whenAddingFundsWithADifferentCase_shouldAddTheFundsToTheSameAccount() throws Exception {
+        //arrange
+        String funds = "10000";
+        String address = "0x05DFG769DFG897SFD";
+        final AddFundsFlow.Initiator flow = new AddFundsFlow.Initiator(NEW_FUNDS, funds, address, partyResponder);
+        final AddFundsFlow.Initiator flow2 = new AddFundsFlow.Initiator(NEW_FUNDS, funds, address.toLowerCase(),
+                partyResponder);
+
+        //act
+        final CordaFuture<SignedTransaction> future = initiator.startFlow(flow);
+        network.runNetwork();
+        future.get();
+
+        final CordaFuture<SignedTransaction> future2 = initiator.startFlow(flow2);
+        network.runNetwork();
+
+        final SignedTransaction tx = future2.get();
+
+        //assert
+        assertEquals(1, tx.getTx().getInputs().size());
+        AccountsFundsState output = (AccountsFundsState) tx.getTx().getOutputStates().get(0);
+        assertEquals(address.toLowerCase(), output.getEvmAddress());
+        assertEquals(0, new BigDecimal("20000").compareTo(output.getFunds()));
+    }
+
     @Test(expected = ExecutionException.class)
     public void whenAddingFundsIfAmountIsZero_shouldThrowException() throws Exception {
         String funds = "0";
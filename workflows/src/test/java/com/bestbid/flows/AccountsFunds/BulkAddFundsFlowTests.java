@@ -0,0 +1,86 @@
+package com.bestbid.flows.AccountsFunds;
+
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.AccountsFundsStateTxType;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.assertEquals;
+
+public class BulkAddFundsFlowTests {
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final StartedMockNode responder;
+    private final Party partyResponder;
+
+    private final String accountOneAddress = "0x05DFG769DFG897SFD";
+    private final String accountTwoAddress = "0x0F873KA2KJH4GGSK2";
+
+    public BulkAddFundsFlowTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        this.responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        run(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "100", accountOneAddress, partyResponder));
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenDepositingToSeveralAddresses_shouldCreditAllOfThemInOneTransaction() throws Exception {
+        //arrange
+        Map<String, String> fundsByAddress = new LinkedHashMap<>();
+        fundsByAddress.put(accountOneAddress, "10");
+        fundsByAddress.put(accountTwoAddress, "20");
+        fundsByAddress.put(accountTwoAddress.toLowerCase(), "5");
+
+        //act
+        SignedTransaction tx = run(new BulkAddFundsFlow.Initiator(fundsByAddress, partyResponder));
+
+        //assert
+        assertEquals(1, tx.getTx().getInputs().size());
+        assertEquals(2, tx.getTx().getOutputStates().size());
+        for (StartedMockNode node : new StartedMockNode[]{initiator, responder}) {
+            UnconsumedStateIndex index = node.getServices().cordaService(UnconsumedStateIndex.class);
+            assertEquals(0, new BigDecimal("110").compareTo(funds(index, accountOneAddress)));
+            assertEquals(0, new BigDecimal("25").compareTo(funds(index, accountTwoAddress)));
+        }
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void whenDepositingANegativeAmount_shouldThrowError() throws Exception {
+        run(new BulkAddFundsFlow.Initiator(Collections.singletonMap(accountTwoAddress, "-1"), partyResponder));
+    }
+
+    private SignedTransaction run(FlowLogic<SignedTransaction> flow) throws Exception {
+        CordaFuture<SignedTransaction> future = initiator.startFlow(flow);
+        network.runNetwork();
+        return future.get();
+    }
+
+    private static BigDecimal funds(UnconsumedStateIndex index, String address) {
+        return index.findAccountFunds(address).orElseThrow(AssertionError::new);
+    }
+}
@@ -0,0 +1,142 @@
+package com.bestbid.flows.AccountsFunds;
+
+import com.bestbid.flows.MakeBidFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.services.AuctionBidStats;
+import com.bestbid.services.BidMetrics;
+import com.bestbid.services.CordappSettings;
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.EvmAddress;
+import com.google.common.collect.ImmutableMap;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.assertEquals;
+
+public class FundCoinsTests {
+
+    private static final int COINS = 4;
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final Party partyResponder;
+
+    private final String accountAddress = "0x05DFG769DFG897SFD";
+
+    public FundCoinsTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters(ImmutableMap.of(
+                CordappSettings.ACCOUNT_FUND_COINS, COINS,
+                CordappSettings.FUND_COIN_MERGE_INTERVAL_SECONDS, 0)).withThreadPerNode(true));
+        this.initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        for (int i = 0; i < COINS; i++) {
+            addFunds("100");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenAddingFundsToAnAddressHoldingAllItsCoins_shouldTopUpTheSmallestCoin() throws Exception {
+        //act
+        addFunds("50");
+
+        //assert
+        UnconsumedStateIndex index = index();
+        assertEquals(COINS, index.findAccountCoins(accountAddress).size());
+        assertEquals(0, new BigDecimal("450").compareTo(index.findAccountFunds(accountAddress).orElseThrow(AssertionError::new)));
+    }
+
+    @Test
+    public void whenBiddingOnManyNftsAtOnce_shouldSpendADifferentCoinOnEachBid() throws Exception {
+        //arrange
+        List<CordaFuture<SignedTransaction>> futures = new ArrayList<>();
+        for (int i = 0; i < COINS; i++) {
+            futures.add(initiator.startFlow(new IssueNftFlow.Initiator("10", String.valueOf(i), partyResponder)));
+        }
+        for (CordaFuture<SignedTransaction> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        //act
+        List<CordaFuture<SignedTransaction>> bids = new ArrayList<>();
+        for (int i = 0; i < COINS; i++) {
+            bids.add(initiator.startFlow(new MakeBidFlow.Initiator("60", accountAddress, String.valueOf(i),
+                    partyResponder)));
+        }
+        for (CordaFuture<SignedTransaction> bid : bids) {
+            bid.get(60, TimeUnit.SECONDS);
+        }
+
+        //assert
+        long waits = 0;
+        for (AuctionBidStats stats : initiator.getServices().cordaService(BidMetrics.class).snapshot()) {
+            waits += stats.getLockRetries() + stats.getNotaryRetries();
+        }
+        assertEquals(0, waits);
+        assertEquals(0, new BigDecimal("160").compareTo(index().findAccountFunds(accountAddress)
+                .orElseThrow(AssertionError::new)));
+    }
+
+    @Test
+    public void whenAnAddressHoldsSeveralCoins_shouldGiveEachCoinItsOwnLinearId() {
+        //act
+        Set<UniqueIdentifier> linearIds = index().findAccountCoins(accountAddress).stream()
+                .map(ref -> ref.getState().getData().getLinearId())
+                .collect(Collectors.toSet());
+
+        //assert
+        assertEquals(COINS, linearIds.size());
+        linearIds.forEach(linearId -> assertEquals(EvmAddress.normalise(accountAddress), linearId.getExternalId()));
+    }
+
+    @Test
+    public void whenMergingTheCoinsOfAnAddress_shouldKeepItsFundsInASingleCoin() throws Exception {
+        //act
+        SignedTransaction tx = initiator.startFlow(new MergeFundsFlow.Initiator(accountAddress, partyResponder, 1L))
+                .get(30, TimeUnit.SECONDS);
+
+        //assert
+        assertEquals(COINS, tx.getTx().getInputs().size());
+        List<StateAndRef<AccountsFundsState>> coins = index().findAccountCoins(accountAddress);
+        assertEquals(1, coins.size());
+        AccountsFundsState merged = coins.get(0).getState().getData();
+        assertEquals(AccountsFundsStateTxType.FUNDS_MERGED, merged.getType());
+        assertEquals(0, new BigDecimal("400").compareTo(merged.getFunds()));
+    }
+
+    private void addFunds(String funds) throws Exception {
+        initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, funds, accountAddress,
+                partyResponder)).get(30, TimeUnit.SECONDS);
+    }
+
+    private UnconsumedStateIndex index() {
+        return initiator.getServices().cordaService(UnconsumedStateIndex.class);
+    }
+}
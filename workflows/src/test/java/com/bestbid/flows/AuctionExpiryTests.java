@@ -0,0 +1,135 @@
+package com.bestbid.flows;
+
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.identity.Party;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.*;
+
+public class AuctionExpiryTests {
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final StartedMockNode responder;
+    private final Party partyResponder;
+
+    private final String accountOneAddress = "0x05DFG769DFG897SFD";
+    private final String nftId = "1";
+
+    public AuctionExpiryTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters().withThreadPerNode(true));
+        this.initiator = network.createNode();
+        this.responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "1000",
+                accountOneAddress, partyResponder)).get(30, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenTheEndOfTheAuctionIsReached_shouldEndItOnBothNodes() throws Exception {
+        //arrange
+        Instant auctionEnd = Instant.now().plusSeconds(2);
+
+        //act
+        initiator.startFlow(new IssueNftFlow.Initiator("50", nftId, partyResponder, auctionEnd))
+                .get(30, TimeUnit.SECONDS);
+
+        //assert
+        for (StartedMockNode node : Arrays.asList(initiator, responder)) {
+            NftState nft = awaitAuctionEnded(node, Duration.ofSeconds(30));
+            assertTrue(nft.isAuctionEnded());
+            assertEquals(auctionEnd, nft.getAuctionEnd());
+        }
+    }
+
+    @Test
+    public void givenAnEndedAuction_whenBidding_shouldThrowError() throws Exception {
+        //arrange
+        initiator.startFlow(new IssueNftFlow.Initiator("50", nftId, partyResponder, Instant.now().plusSeconds(1)))
+                .get(30, TimeUnit.SECONDS);
+        awaitAuctionEnded(initiator, Duration.ofSeconds(30));
+
+        //act
+        try {
+            initiator.startFlow(new MakeBidFlow.Initiator("60", accountOneAddress, nftId, partyResponder))
+                    .get(30, TimeUnit.SECONDS);
+            fail("The bid should have been rejected");
+        } catch (ExecutionException e) {
+            //assert
+            assertEquals("You can't make a bid after the end of the auction", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void givenAnAuctionWithAnEndTime_whenBiddingBeforeIt_shouldKeepTheEndTime() throws Exception {
+        //arrange
+        Instant auctionEnd = Instant.now().plus(Duration.ofHours(1));
+        initiator.startFlow(new IssueNftFlow.Initiator("50", nftId, partyResponder, auctionEnd))
+                .get(30, TimeUnit.SECONDS);
+
+        //act
+        NftState nft = (NftState) initiator.startFlow(new MakeBidFlow.Initiator("60", accountOneAddress, nftId,
+                partyResponder)).get(30, TimeUnit.SECONDS).getTx().getOutputStates().get(0);
+
+        //assert
+        assertFalse(nft.isAuctionEnded());
+        assertEquals(auctionEnd, nft.getAuctionEnd());
+    }
+
+    @Test
+    public void givenAnAuctionBidOnSinceItWasScheduled_whenTheScheduledFlowRuns_shouldLeaveItToTheLatestState()
+            throws Exception {
+        //arrange
+        StateRef issued = initiator.startFlow(new IssueNftFlow.Initiator("50", nftId, partyResponder,
+                Instant.now().plus(Duration.ofHours(1)))).get(30, TimeUnit.SECONDS).getTx().outRef(0).getRef();
+        initiator.startFlow(new MakeBidFlow.Initiator("60", accountOneAddress, nftId, partyResponder))
+                .get(30, TimeUnit.SECONDS);
+
+        //act
+        initiator.startFlow(new EndAuctionFlow.Scheduled(issued)).get(30, TimeUnit.SECONDS);
+
+        //assert
+        NftState nft = initiator.getServices().cordaService(UnconsumedStateIndex.class).findNft(nftId)
+                .orElseThrow(AssertionError::new).getState().getData();
+        assertFalse(nft.isAuctionEnded());
+        assertEquals(1, nft.getBidNumber());
+    }
+
+    private NftState awaitAuctionEnded(StartedMockNode node, Duration timeout) throws InterruptedException {
+        UnconsumedStateIndex index = node.getServices().cordaService(UnconsumedStateIndex.class);
+        Instant deadline = Instant.now().plus(timeout);
+        while (Instant.now().isBefore(deadline)) {
+            NftState nft = index.findNft(nftId).orElseThrow(AssertionError::new).getState().getData();
+            if (nft.isAuctionEnded()) {
+                return nft;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("The auction of " + nftId + " wasn't ended by the scheduler");
+    }
+}
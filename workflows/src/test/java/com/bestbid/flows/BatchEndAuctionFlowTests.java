@@ -0,0 +1,110 @@
+package com.bestbid.flows;
+
+import com.bestbid.flows.Nft.BatchIssueNftFlow;
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.NftState;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.*;
+
+public class BatchEndAuctionFlowTests {
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final StartedMockNode responder;
+    private final Party partyResponder;
+
+    public BatchEndAuctionFlowTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        this.responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        Map<String, String> minimumBidsByNftId = new LinkedHashMap<>();
+        minimumBidsByNftId.put("1", "10");
+        minimumBidsByNftId.put("2", "20");
+        minimumBidsByNftId.put("3", "30");
+        run(new BatchIssueNftFlow.Initiator(minimumBidsByNftId, partyResponder));
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenEndingABatch_shouldEndEveryAuctionInOneTransaction() throws Exception {
+        //arrange
+        List<String> nftIds = new ArrayList<>(Arrays.asList("1", "3", "1"));
+
+        //act
+        SignedTransaction tx = run(new BatchEndAuctionFlow.Initiator(nftIds, partyResponder));
+
+        //assert
+        assertEquals(2, tx.getTx().getInputs().size());
+        assertEquals(2, tx.getTx().getOutputStates().size());
+        for (StartedMockNode node : new StartedMockNode[]{initiator, responder}) {
+            UnconsumedStateIndex index = node.getServices().cordaService(UnconsumedStateIndex.class);
+            assertTrue(findNft(index, "1").isAuctionEnded());
+            assertFalse(findNft(index, "2").isAuctionEnded());
+            assertTrue(findNft(index, "3").isAuctionEnded());
+            assertEquals("3", findNft(index, "3").getLinearId().getExternalId());
+        }
+    }
+
+    @Test
+    public void whenABatchContainsAnEndedAuction_shouldRejectTheWholeBatch() throws Exception {
+        //arrange
+        run(new EndAuctionFlow.Initiator("2", partyResponder));
+
+        //act
+        try {
+            run(new BatchEndAuctionFlow.Initiator(new ArrayList<>(Arrays.asList("1", "2")), partyResponder));
+            fail("The batch should have been rejected");
+        } catch (ExecutionException e) {
+            //assert
+            assertEquals("Auctions of nfts with ids [2] are already ended", e.getCause().getMessage());
+        }
+        assertFalse(findNft(initiator.getServices().cordaService(UnconsumedStateIndex.class), "1").isAuctionEnded());
+    }
+
+    @Test
+    public void whenABatchContainsAMissingNft_shouldRejectTheWholeBatch() throws Exception {
+        //act
+        try {
+            run(new BatchEndAuctionFlow.Initiator(new ArrayList<>(Arrays.asList("1", "100")), partyResponder));
+            fail("The batch should have been rejected");
+        } catch (ExecutionException e) {
+            //assert
+            assertEquals("Nfts with ids [100] don't exist", e.getCause().getMessage());
+        }
+    }
+
+    private static NftState findNft(UnconsumedStateIndex index, String nftId) {
+        return index.findNft(nftId).orElseThrow(AssertionError::new).getState().getData();
+    }
+
+    private <T> T run(FlowLogic<T> flow) throws Exception {
+        CordaFuture<T> future = initiator.startFlow(flow);
+        network.runNetwork();
+        return future.get();
+    }
+}
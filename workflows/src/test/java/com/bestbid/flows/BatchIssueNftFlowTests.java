@@ -0,0 +1,98 @@
+package com.bestbid.flows;
+
+import com.bestbid.flows.Nft.BatchIssueNftFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.NftState;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.*;
+
+public class BatchIssueNftFlowTests {
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final StartedMockNode responder;
+    private final Party partyResponder;
+
+    public BatchIssueNftFlowTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        this.responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenIssuingABatch_shouldIssueEveryNftInOneTransaction() throws Exception {
+        //arrange
+        Map<String, String> minimumBidsByNftId = new LinkedHashMap<>();
+        minimumBidsByNftId.put("1", "10");
+        minimumBidsByNftId.put("2", "20");
+        minimumBidsByNftId.put("3", "30");
+
+        //act
+        List<SignedTransaction> transactions = run(new BatchIssueNftFlow.Initiator(minimumBidsByNftId,
+                partyResponder));
+
+        //assert
+        assertEquals(1, transactions.size());
+        assertEquals(3, transactions.get(0).getTx().getOutputStates().size());
+        for (StartedMockNode node : new StartedMockNode[]{initiator, responder}) {
+            UnconsumedStateIndex index = node.getServices().cordaService(UnconsumedStateIndex.class);
+            for (Map.Entry<String, String> nft : minimumBidsByNftId.entrySet()) {
+                NftState state = index.findNft(nft.getKey()).orElseThrow(AssertionError::new).getState().getData();
+                assertEquals(0, new BigDecimal(nft.getValue()).compareTo(state.getMinimumBid()));
+                assertEquals(0, state.getBidNumber());
+            }
+        }
+    }
+
+    @Test
+    public void whenABatchContainsAnExistingNft_shouldRejectTheWholeBatch() throws Exception {
+        //arrange
+        run(new IssueNftFlow.Initiator("10", "2", partyResponder));
+        Map<String, String> minimumBidsByNftId = new LinkedHashMap<>();
+        minimumBidsByNftId.put("1", "10");
+        minimumBidsByNftId.put("2", "20");
+
+        //act
+        try {
+            run(new BatchIssueNftFlow.Initiator(minimumBidsByNftId, partyResponder));
+            fail("The batch should have been rejected");
+        } catch (ExecutionException e) {
+            //assert
+            assertEquals("Nfts with ids [2] are already created", e.getCause().getMessage());
+        }
+        assertFalse(initiator.getServices().cordaService(UnconsumedStateIndex.class).findNft("1").isPresent());
+    }
+
+    private <T> T run(FlowLogic<T> flow) throws Exception {
+        CordaFuture<T> future = initiator.startFlow(flow);
+        network.runNetwork();
+        return future.get();
+    }
+}
@@ -30,6 +30,7 @@ public class EndAuctionFlowTests {
     private final StartedMockNode responder;
     private final Party partyInitiator;
     private final Party partyResponder;
+    private NftState issuedNftState;
 
     public EndAuctionFlowTests() throws Exception {
         this.network = new MockNetwork(prepareMockNetworkParameters());
@@ -51,6 +52,7 @@ public class EndAuctionFlowTests {
         network.runNetwork();
         final SignedTransaction signedTransactionIssueFlow = futureIssueNft.get();
         signedTransactionIssueFlow.verifyRequiredSignatures();
+        issuedNftState = (NftState) signedTransactionIssueFlow.getTx().getOutputStates().get(0);
     }
 
     @After
@@ -82,6 +84,19 @@ public class EndAuctionFlowTests {
         }
     }
 
+    @Test
+    public void whenEndAuctionToNftState_shouldKeepTheLinearIdOfTheAuction() throws Exception {
+        //act
+        final CordaFuture<SignedTransaction> futureEndAuction = initiator.startFlow(
+                new EndAuctionFlow.Initiator("1", partyResponder));
+        network.runNetwork();
+        NftState endedState = (NftState) futureEndAuction.get().getTx().getOutputStates().get(0);
+
+        //assert
+        assertEquals(issuedNftState.getLinearId(), endedState.getLinearId());
+        assertEquals("1", endedState.getLinearId().getExternalId());
+    }
+
     @Test(expected = ExecutionException.class)
     public void whenNftDoestExist_shouldThrowError() throws Exception {
         final EndAuctionFlow.Initiator endAuctionFlow = new EndAuctionFlow.Initiator("100", partyResponder);
@@ -6,14 +6,29 @@ import net.corda.testing.node.MockNetworkNotarySpec;
 import net.corda.testing.node.MockNetworkParameters;
 import net.corda.testing.node.TestCordapp;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 public interface FlowHelpers {
 
     static MockNetworkParameters prepareMockNetworkParameters() throws Exception {
+        return prepareMockNetworkParameters(Collections.emptyMap());
+    }
+
+    static MockNetworkParameters prepareMockNetworkParameters(Map<String, Object> flowsConfig) throws Exception {
+        return prepareMockNetworkParameters(flowsConfig, Collections.singletonList("O=Notary,L=London,C=GB"));
+    }
+
+    static MockNetworkParameters prepareMockNetworkParameters(Map<String, Object> flowsConfig, List<String> notaries) throws Exception {
         return new MockNetworkParameters()
-                .withNotarySpecs(ImmutableList.of(new MockNetworkNotarySpec(CordaX500Name.parse("O=Notary,L=London,C=GB"))))
+                .withNotarySpecs(notaries.stream()
+                        .map(notary -> new MockNetworkNotarySpec(CordaX500Name.parse(notary)))
+                        .collect(Collectors.toList()))
                 .withCordappsForAllNodes(ImmutableList.of(
                         TestCordapp.findCordapp("com.bestbid.contracts"),
-                        TestCordapp.findCordapp("com.bestbid.flows"))
+                        TestCordapp.findCordapp("com.bestbid.flows").withConfig(flowsConfig))
                 );
     }
 }
@@ -0,0 +1,81 @@
+package com.bestbid.flows;
+
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.assertEquals;
+
+public class MakeBidFlowRetryTests {
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final Party partyResponder;
+
+    private final String accountOneAddress = "0x05DFG769DFG897SFD";
+    private final String accountTwoAddress = "0x0F873KA2KJH4GGSK2";
+    private final String nftId = "1";
+
+    public MakeBidFlowRetryTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters().withThreadPerNode(true));
+        this.initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        List<CordaFuture<SignedTransaction>> futures = new ArrayList<>();
+        futures.add(initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "1000",
+                accountOneAddress, partyResponder)));
+        futures.add(initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "1000",
+                accountTwoAddress, partyResponder)));
+        futures.add(initiator.startFlow(new IssueNftFlow.Initiator("50", nftId, partyResponder)));
+        for (CordaFuture<SignedTransaction> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenTwoBidsRaceForTheSameNft_shouldRetryAndRecordTheHigherOne() throws Exception {
+        //arrange
+        MakeBidFlow.Initiator lowerBid = new MakeBidFlow.Initiator("60", accountOneAddress, nftId, partyResponder);
+        MakeBidFlow.Initiator higherBid = new MakeBidFlow.Initiator("70", accountTwoAddress, nftId, partyResponder);
+
+        //act
+        CordaFuture<SignedTransaction> lowerFuture = initiator.startFlow(lowerBid);
+        CordaFuture<SignedTransaction> higherFuture = initiator.startFlow(higherBid);
+        higherFuture.get(30, TimeUnit.SECONDS);
+        try {
+            lowerFuture.get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // The lower bid loses when the higher one is recorded first.
+        }
+
+        //assert
+        NftState nft = initiator.getServices().cordaService(UnconsumedStateIndex.class).findNft(nftId)
+                .orElseThrow(AssertionError::new).getState().getData();
+        assertEquals(0, new BigDecimal("70").compareTo(nft.getCurrentBid()));
+    }
+}
@@ -0,0 +1,100 @@
+package com.bestbid.flows;
+
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.services.AuctionBidStats;
+import com.bestbid.services.BidMetrics;
+import com.bestbid.services.CordappSettings;
+import com.bestbid.services.UnconsumedStateIndex;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.google.common.collect.ImmutableMap;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MakeBidFlowSoftLockTests {
+
+    private static final int NFTS = 10;
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final Party partyResponder;
+
+    private final String accountAddress = "0x05DFG769DFG897SFD";
+
+    public MakeBidFlowSoftLockTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters(ImmutableMap.of(
+                CordappSettings.BID_RETRY_ATTEMPTS, 8,
+                CordappSettings.BID_RETRY_BACKOFF_MILLIS, 20)).withThreadPerNode(true));
+        this.initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        List<CordaFuture<SignedTransaction>> futures = new ArrayList<>();
+        futures.add(initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "1000",
+                accountAddress, partyResponder)));
+        for (int i = 0; i < NFTS; i++) {
+            futures.add(initiator.startFlow(new IssueNftFlow.Initiator("10", String.valueOf(i), partyResponder)));
+        }
+        for (CordaFuture<SignedTransaction> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenOneAddressBidsOnManyNftsAtOnce_shouldResolveTheRaceWithoutNotaryConflicts() throws Exception {
+        //arrange
+        List<CordaFuture<SignedTransaction>> bids = new ArrayList<>();
+
+        //act
+        for (int i = 0; i < NFTS; i++) {
+            bids.add(initiator.startFlow(new MakeBidFlow.Initiator("20", accountAddress, String.valueOf(i),
+                    partyResponder)));
+        }
+        int recorded = 0;
+        for (CordaFuture<SignedTransaction> bid : bids) {
+            try {
+                bid.get(60, TimeUnit.SECONDS);
+                recorded++;
+            } catch (ExecutionException e) {
+                // The bid ran out of attempts while the account was locked by the other bids.
+            }
+        }
+
+        //assert
+        assertTrue(recorded > 0);
+        long notaryConflicts = 0;
+        for (AuctionBidStats stats : initiator.getServices().cordaService(BidMetrics.class).snapshot()) {
+            notaryConflicts += stats.getNotaryRetries() + stats.getNotaryFailures();
+        }
+        assertEquals(0, notaryConflicts);
+
+        AccountsFundsState account = initiator.getServices().cordaService(UnconsumedStateIndex.class)
+                .findAccount(accountAddress).orElseThrow(AssertionError::new).getState().getData();
+        assertEquals(0, new BigDecimal(1000 - 20 * recorded).compareTo(account.getFunds()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.bestbid.schema;
+
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.MakeBidFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.identity.Party;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.assertEquals;
+
+public class StateQueriesTests {
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final Party partyResponder;
+
+    private final String accountOneAddress = "0x05DFG769DFG897SFD";
+    private final String accountTwoAddress = "0x0F873KA2KJH4GGSK2";
+
+    public StateQueriesTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() {
+        initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "1000", accountOneAddress,
+                partyResponder));
+        initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "500", accountTwoAddress,
+                partyResponder));
+        initiator.startFlow(new IssueNftFlow.Initiator("50", "1", partyResponder));
+        initiator.startFlow(new IssueNftFlow.Initiator("50", "2", partyResponder));
+        initiator.startFlow(new IssueNftFlow.Initiator("50", "3", partyResponder));
+        network.runNetwork();
+
+        initiator.startFlow(new MakeBidFlow.Initiator("60", accountOneAddress, "1", partyResponder));
+        initiator.startFlow(new MakeBidFlow.Initiator("90", accountTwoAddress, "2", partyResponder));
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenQueryingHighestBids_shouldReturnThemOrderedByCurrentBid() {
+        List<StateAndRef<NftState>> nfts = initiator.transaction(() -> initiator.getServices().getVaultService()
+                .queryBy(NftState.class, StateQueries.nftsWithCurrentBidAbove(BigDecimal.ZERO),
+                        StateQueries.first(10), StateQueries.byCurrentBidDescending()).getStates());
+
+        assertEquals(2, nfts.size());
+        assertEquals("2", nfts.get(0).getState().getData().getNftId());
+        assertEquals("1", nfts.get(1).getState().getData().getNftId());
+    }
+
+    @Test
+    public void whenQueryingNftsByIds_shouldReturnOnlyTheExistingOnes() {
+        List<StateAndRef<NftState>> nfts = initiator.transaction(() -> initiator.getServices().getVaultService()
+                .queryBy(NftState.class, StateQueries.nftsByIds(Arrays.asList("1", "3", "4")),
+                        StateQueries.first(10), StateQueries.nftsSortedBy("nftId", Sort.Direction.ASC)).getStates());
+
+        assertEquals(2, nfts.size());
+        assertEquals("1", nfts.get(0).getState().getData().getNftId());
+        assertEquals("3", nfts.get(1).getState().getData().getNftId());
+    }
+}
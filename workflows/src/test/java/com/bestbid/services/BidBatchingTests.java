@@ -0,0 +1,144 @@
+package com.bestbid.services;
+
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.flows.SequencedMakeBidFlow;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import com.google.common.collect.ImmutableMap;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.utilities.NonEmptySet;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.*;
+
+public class BidBatchingTests {
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final Party partyResponder;
+
+    private final List<String> bidders = Arrays.asList("0x05DFG769DFG897SFD", "0x0F873KA2KJH4GGSK2", "0x0A9F8D7C6B5A4F3E2");
+    private final String nftId = "1";
+
+    public BidBatchingTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters(
+                ImmutableMap.of(CordappSettings.BID_BATCH_WINDOW_MILLIS, 500)).withThreadPerNode(true));
+        this.initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        List<CordaFuture<SignedTransaction>> futures = new ArrayList<>();
+        for (String bidder : bidders) {
+            futures.add(initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "1000",
+                    bidder, partyResponder)));
+        }
+        futures.add(initiator.startFlow(new IssueNftFlow.Initiator("50", nftId, partyResponder)));
+        for (CordaFuture<SignedTransaction> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenBidsArriveWithinTheWindow_shouldOnlyRecordTheHighestOne() throws Exception {
+        //arrange
+        List<String> amounts = Arrays.asList("60", "80", "70");
+        List<CordaFuture<SignedTransaction>> bids = new ArrayList<>();
+
+        //act
+        for (int i = 0; i < bidders.size(); i++) {
+            bids.add(initiator.startFlow(new SequencedMakeBidFlow(amounts.get(i), bidders.get(i), nftId,
+                    partyResponder)));
+        }
+
+        //assert
+        SignedTransaction winningTx = bids.get(1).get(30, TimeUnit.SECONDS);
+        AccountsFundsContract.Commands.MakeBatchedBid command =
+                (AccountsFundsContract.Commands.MakeBatchedBid) winningTx.getTx().getCommands().get(0).getValue();
+        assertEquals(2, command.getCollapsedBids());
+        assertEquals(0, new BigDecimal("70").compareTo(command.getHighestRejectedBid()));
+
+        for (int loser : Arrays.asList(0, 2)) {
+            try {
+                bids.get(loser).get(30, TimeUnit.SECONDS);
+                fail("The bid should have been rejected");
+            } catch (ExecutionException e) {
+                assertEquals("Outbid by a bid of 80 made within the same batch window", e.getCause().getMessage());
+            }
+        }
+
+        UnconsumedStateIndex index = initiator.getServices().cordaService(UnconsumedStateIndex.class);
+        NftState nft = index.findNft(nftId).orElseThrow(AssertionError::new).getState().getData();
+        assertEquals(1, nft.getBidNumber());
+        assertEquals(0, new BigDecimal("80").compareTo(nft.getCurrentBid()));
+        AccountsFundsState loserAccount = index.findAccount(bidders.get(0)).orElseThrow(AssertionError::new)
+                .getState().getData();
+        assertEquals(0, new BigDecimal("1000").compareTo(loserAccount.getFunds()));
+    }
+
+    @Test
+    public void whenTheHighestBidOfTheWindowFails_shouldRecordTheNextOne() throws Exception {
+        //arrange
+        UnconsumedStateIndex index = initiator.getServices().cordaService(UnconsumedStateIndex.class);
+        StateRef highestBidderCoin = index.findAccount(bidders.get(1)).orElseThrow(AssertionError::new).getRef();
+        initiator.transaction(() -> {
+            initiator.getServices().getVaultService().softLockReserve(UUID.randomUUID(),
+                    NonEmptySet.of(highestBidderCoin));
+            return null;
+        });
+        List<String> amounts = Arrays.asList("60", "80", "70");
+        List<CordaFuture<SignedTransaction>> bids = new ArrayList<>();
+
+        //act
+        for (int i = 0; i < bidders.size(); i++) {
+            bids.add(initiator.startFlow(new SequencedMakeBidFlow(amounts.get(i), bidders.get(i), nftId,
+                    partyResponder)));
+        }
+
+        //assert
+        try {
+            bids.get(1).get(30, TimeUnit.SECONDS);
+            fail("The bid should have failed");
+        } catch (ExecutionException e) {
+            assertEquals("The NFT or the funds of this bid are locked by another flow, try again later",
+                    e.getCause().getMessage());
+        }
+        bids.get(2).get(30, TimeUnit.SECONDS);
+        try {
+            bids.get(0).get(30, TimeUnit.SECONDS);
+            fail("The bid should have been rejected");
+        } catch (ExecutionException e) {
+            assertEquals("Outbid by a bid of 70 made within the same batch window", e.getCause().getMessage());
+        }
+
+        NftState nft = index.findNft(nftId).orElseThrow(AssertionError::new).getState().getData();
+        assertEquals(1, nft.getBidNumber());
+        assertEquals(0, new BigDecimal("70").compareTo(nft.getCurrentBid()));
+    }
+}
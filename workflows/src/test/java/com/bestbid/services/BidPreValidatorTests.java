@@ -0,0 +1,100 @@
+package com.bestbid.services;
+
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.MakeBidFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.states.AccountsFundsStateTxType;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.*;
+
+public class BidPreValidatorTests {
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final StartedMockNode responder;
+    private final Party partyResponder;
+
+    private final String bidder = "0x05DFG769DFG897SFD";
+    private final String nftId = "1";
+
+    public BidPreValidatorTests() {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        this.responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        network.runNetwork();
+        run(new IssueNftFlow.Initiator("50", nftId, partyResponder));
+        run(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "100", bidder, partyResponder));
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenBidIsBelowTheMinimumBid_shouldReturnTheReason() {
+        //act
+        Optional<BidRejection> rejection = BidPreValidator.validate(initiator.getServices(), new BigDecimal("40"),
+                bidder, nftId);
+
+        //assert
+        assertTrue(rejection.isPresent());
+        assertEquals(BidRejection.Reason.BELOW_MINIMUM_BID, rejection.get().getReason());
+    }
+
+    @Test
+    public void whenBidCanWin_shouldNotRejectIt() {
+        //act
+        Optional<BidRejection> rejection = BidPreValidator.validate(initiator.getServices(), new BigDecimal("60"),
+                bidder, nftId);
+
+        //assert
+        assertFalse(rejection.isPresent());
+    }
+
+    @Test
+    public void whenBidderLacksFunds_shouldRejectTheBidWithoutReachingTheCounterparty() throws Exception {
+        //arrange
+        int responderTransactions = transactionsOf(responder);
+
+        //act
+        try {
+            run(new MakeBidFlow.Initiator("150", bidder, nftId, partyResponder));
+            fail("The bid should have been rejected");
+        } catch (ExecutionException e) {
+            //assert
+            assertTrue(e.getCause() instanceof BidRejectedException);
+            assertEquals(BidRejection.Reason.INSUFFICIENT_FUNDS, ((BidRejectedException) e.getCause()).getReason());
+        }
+        assertEquals(responderTransactions, transactionsOf(responder));
+    }
+
+    private int transactionsOf(StartedMockNode node) {
+        return node.transaction(() -> node.getServices().getValidatedTransactions().track().getSnapshot().size());
+    }
+
+    private SignedTransaction run(FlowLogic<SignedTransaction> flow) throws Exception {
+        CordaFuture<SignedTransaction> future = initiator.startFlow(flow);
+        network.runNetwork();
+        return future.get();
+    }
+}
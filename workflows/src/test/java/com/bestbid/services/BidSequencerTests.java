@@ -0,0 +1,125 @@
+package com.bestbid.services;
+
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.flows.SequencedMakeBidFlow;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.*;
+
+public class BidSequencerTests {
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final Party partyResponder;
+
+    private final List<String> bidders = Arrays.asList("0x05DFG769DFG897SFD", "0x0F873KA2KJH4GGSK2", "0x0A9F8D7C6B5A4F3E2");
+    private final String nftId = "1";
+
+    public BidSequencerTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters().withThreadPerNode(true));
+        this.initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        List<CordaFuture<SignedTransaction>> futures = new ArrayList<>();
+        for (String bidder : bidders) {
+            futures.add(initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "1000",
+                    bidder, partyResponder)));
+        }
+        futures.add(initiator.startFlow(new IssueNftFlow.Initiator("50", nftId, partyResponder)));
+        for (CordaFuture<SignedTransaction> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenBidsOnTheSameNftArriveTogether_shouldRunThemAllOneAfterTheOther() throws Exception {
+        //arrange
+        List<CordaFuture<SignedTransaction>> bids = new ArrayList<>();
+
+        //act
+        for (int i = 0; i < bidders.size(); i++) {
+            bids.add(initiator.startFlow(new SequencedMakeBidFlow(String.valueOf(60 + i * 10), bidders.get(i), nftId,
+                    partyResponder)));
+        }
+        for (CordaFuture<SignedTransaction> bid : bids) {
+            bid.get(30, TimeUnit.SECONDS);
+        }
+
+        //assert
+        NftState nft = initiator.getServices().cordaService(UnconsumedStateIndex.class).findNft(nftId)
+                .orElseThrow(AssertionError::new).getState().getData();
+        assertEquals(3, nft.getBidNumber());
+        assertEquals(0, new BigDecimal("80").compareTo(nft.getCurrentBid()));
+    }
+
+    @Test
+    public void whenTheSameBidIsSubmittedTwice_shouldOnlyRunItOnce() throws Exception {
+        //arrange
+        BidSequencer sequencer = initiator.getServices().cordaService(BidSequencer.class);
+
+        //act
+        CompletableFuture<SignedTransaction> first = sequencer.submit("bid-1", "60", bidders.get(0), nftId,
+                partyResponder);
+        CompletableFuture<SignedTransaction> repeat = sequencer.submit("bid-1", "60", bidders.get(0), nftId,
+                partyResponder);
+        first.get(30, TimeUnit.SECONDS);
+
+        //assert
+        assertSame(first, repeat);
+        NftState nft = initiator.getServices().cordaService(UnconsumedStateIndex.class).findNft(nftId)
+                .orElseThrow(AssertionError::new).getState().getData();
+        assertEquals(1, nft.getBidNumber());
+        assertEquals(1, initiator.getServices().cordaService(BidMetrics.class).snapshot().get(0).getSequencedBids());
+    }
+
+    @Test
+    public void whenBidIsNotAboveTheCurrentPrice_shouldRejectItBeforeBuildingATransaction() throws Exception {
+        //arrange
+        initiator.startFlow(new SequencedMakeBidFlow("60", bidders.get(0), nftId, partyResponder))
+                .get(30, TimeUnit.SECONDS);
+
+        //act
+        try {
+            initiator.startFlow(new SequencedMakeBidFlow("55", bidders.get(1), nftId, partyResponder))
+                    .get(30, TimeUnit.SECONDS);
+            fail("The bid should have been rejected");
+        } catch (ExecutionException e) {
+            assertEquals("Amount bidded must be higher than current bid", e.getCause().getMessage());
+        }
+
+        //assert
+        AuctionBidStats stats = initiator.getServices().cordaService(BidMetrics.class).snapshot().get(0);
+        assertEquals(nftId, stats.getNftId());
+        assertEquals(2, stats.getSequencedBids());
+        assertEquals(1, stats.getRejectedBids());
+        assertEquals(0, stats.getQueueDepth());
+    }
+}
@@ -0,0 +1,125 @@
+package com.bestbid.services;
+
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.MakeBidFlow;
+import com.bestbid.flows.Nft.BatchIssueNftFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import com.google.common.collect.ImmutableMap;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.*;
+
+public class NotarySelectorTests {
+
+    private final List<String> notaries = Arrays.asList("O=Notary,L=London,C=GB", "O=Notary2,L=London,C=GB");
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final Party partyResponder;
+
+    public NotarySelectorTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters(
+                ImmutableMap.of(CordappSettings.NOTARIES, notaries), notaries));
+        this.initiator = network.createNode();
+        StartedMockNode responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenSelectingNotariesForManyNfts_shouldUseEveryNotaryAndAlwaysTheSameOnePerNft() {
+        //arrange
+        NotarySelector selector = initiator.getServices().cordaService(NotarySelector.class);
+
+        //act
+        Set<CordaX500Name> used = new HashSet<>();
+        IntStream.range(0, 100).forEach(i -> used.add(selector.notaryFor(String.valueOf(i))));
+
+        //assert
+        assertEquals(notaries.size(), used.size());
+        assertEquals(selector.notaryFor("42"), selector.notaryFor("42"));
+    }
+
+    @Test
+    public void givenFundsOnAnotherNotary_whenBidding_shouldMoveThemToTheNotaryOfTheNft() throws Exception {
+        //arrange
+        NotarySelector selector = initiator.getServices().cordaService(NotarySelector.class);
+        String nftId = "1";
+        String bidder = IntStream.range(0, 100)
+                .mapToObj(i -> String.format("0x%040x", i))
+                .filter(address -> !selector.notaryFor(address).equals(selector.notaryFor(nftId)))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        run(new IssueNftFlow.Initiator("50", nftId, partyResponder));
+        run(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "1000", bidder, partyResponder));
+
+        //act
+        SignedTransaction bid = run(new MakeBidFlow.Initiator("60", bidder, nftId, partyResponder));
+
+        //assert
+        assertEquals(selector.notaryFor(nftId), bid.getNotary().getName());
+        StateAndRef<AccountsFundsState> coin = initiator.getServices().cordaService(UnconsumedStateIndex.class)
+                .findAccount(bidder).orElseThrow(AssertionError::new);
+        assertEquals(selector.notaryFor(nftId), coin.getState().getNotary().getName());
+    }
+
+    @Test
+    public void whenIssuingABatchOfNfts_shouldIssueEachOneOnItsOwnNotary() throws Exception {
+        //arrange
+        NotarySelector selector = initiator.getServices().cordaService(NotarySelector.class);
+        Map<String, String> minimumBidsByNftId = new LinkedHashMap<>();
+        IntStream.range(0, 20).forEach(i -> minimumBidsByNftId.put(String.valueOf(i), "10"));
+
+        //act
+        List<SignedTransaction> transactions = run(new BatchIssueNftFlow.Initiator(minimumBidsByNftId,
+                partyResponder));
+
+        //assert
+        assertEquals(notaries.size(), transactions.size());
+        int issued = 0;
+        for (SignedTransaction tx : transactions) {
+            for (NftState nft : tx.getTx().outputsOfType(NftState.class)) {
+                assertEquals(selector.notaryFor(nft.getNftId()), tx.getNotary().getName());
+                issued++;
+            }
+        }
+        assertEquals(minimumBidsByNftId.size(), issued);
+    }
+
+    private <T> T run(FlowLogic<T> flow) throws Exception {
+        CordaFuture<T> future = initiator.startFlow(flow);
+        network.runNetwork();
+        return future.get();
+    }
+}
@@ -0,0 +1,234 @@
+package com.bestbid.services;
+
+import com.bestbid.contracts.AccountsFundsContract;
+import com.bestbid.contracts.NftContract;
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.MakeBidFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Set;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.*;
+
+public class ProposalValidatorTests {
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final StartedMockNode responder;
+    private final Party partyInitiator;
+    private final Party partyResponder;
+
+    private final String bidder = "0x05DFG769DFG897SFD";
+    private final String nftId = "1";
+
+    private StateAndRef<NftState> issuedNft;
+    private StateAndRef<AccountsFundsState> fundedCoin;
+
+    public ProposalValidatorTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        this.responder = network.createNode();
+        this.partyInitiator = initiator.getInfo().getLegalIdentities().get(0);
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        network.runNetwork();
+        issuedNft = run(new IssueNftFlow.Initiator("50", nftId, partyResponder)).getTx().outRef(0);
+        fundedCoin = run(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "100", bidder,
+                partyResponder)).getTx().outRef(0);
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenProposalSpendsTheLatestNft_shouldAcceptIt() throws Exception {
+        //arrange
+        SignedTransaction proposal = endAuctionProposal(issuedNft);
+
+        //act
+        validateOnResponder(proposal);
+    }
+
+    @Test(expected = StaleProposalException.class)
+    public void whenProposalSpendsAnNftAlreadyBidOn_shouldRefuseIt() throws Exception {
+        //arrange
+        run(new MakeBidFlow.Initiator("60", bidder, nftId, partyResponder));
+        SignedTransaction proposal = endAuctionProposal(issuedNft);
+
+        //act
+        validateOnResponder(proposal);
+    }
+
+    @Test(expected = StaleProposalException.class)
+    public void givenTheResponderForgotTheConsumedStates_whenProposalSpendsAnOldNft_shouldRefuseIt() throws Exception {
+        //arrange
+        run(new MakeBidFlow.Initiator("60", bidder, nftId, partyResponder));
+        forgetConsumedStates(responder);
+        SignedTransaction proposal = endAuctionProposal(issuedNft);
+
+        //act
+        validateOnResponder(proposal);
+    }
+
+    @Test(expected = StaleProposalException.class)
+    public void givenTheResponderForgotTheConsumedStates_whenProposalSpendsAnOldCoin_shouldRefuseIt() throws Exception {
+        //arrange
+        run(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "50", bidder, partyResponder));
+        forgetConsumedStates(responder);
+        SignedTransaction proposal = mergeProposal(fundedCoin);
+
+        //act
+        validateOnResponder(proposal);
+    }
+
+    @Test(expected = StaleProposalException.class)
+    public void givenASignedProposal_whenAnotherProposalSpendsTheSameNft_shouldRefuseIt() throws Exception {
+        //arrange
+        validateOnResponder(endAuctionProposal(issuedNft));
+        SignedTransaction proposal = endAuctionProposal(issuedNft);
+
+        //act
+        validateOnResponder(proposal);
+    }
+
+    @Test
+    public void givenAReleasedProposal_whenAnotherProposalSpendsTheSameNft_shouldAcceptIt() throws Exception {
+        //arrange
+        SignedTransaction released = endAuctionProposal(issuedNft);
+        validateOnResponder(released);
+        ProposalValidator.release(responder.getServices(), released);
+        SignedTransaction proposal = endAuctionProposal(issuedNft);
+
+        //act
+        validateOnResponder(proposal);
+    }
+
+    @Test
+    public void givenASignedProposal_whenItIsValidatedAgain_shouldAcceptIt() throws Exception {
+        //arrange
+        SignedTransaction proposal = endAuctionProposal(issuedNft);
+        validateOnResponder(proposal);
+
+        //act
+        validateOnResponder(proposal);
+    }
+
+    @Test
+    public void whenProposalIssuesAnExistingNft_shouldRefuseIt() {
+        //arrange
+        NftState duplicate = new NftState(0, false, new BigDecimal("50"), BigDecimal.ZERO, null, nftId,
+                partyInitiator, partyResponder);
+        TransactionBuilder builder = new TransactionBuilder(issuedNft.getState().getNotary())
+                .addOutputState(duplicate, NftContract.ID)
+                .addCommand(new NftContract.Commands.Issue(),
+                        Arrays.asList(partyInitiator.getOwningKey(), partyResponder.getOwningKey()));
+        SignedTransaction proposal = initiator.transaction(() -> initiator.getServices().signInitialTransaction(builder));
+
+        //act
+        try {
+            validateOnResponder(proposal);
+            fail("The proposal should have been refused");
+        } catch (FlowException e) {
+            //assert
+            assertEquals("Nft with id " + nftId + " is already created", e.getMessage());
+        }
+    }
+
+    @Test
+    public void givenTheResponderIndexIsntSeeded_whenANewAccountIsFunded_shouldSignIt() throws Exception {
+        //arrange
+        unseed(responder);
+
+        //act
+        SignedTransaction tx = run(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "100",
+                "0x0F873KA2KJH4GGSK2", partyResponder));
+
+        //assert
+        assertTrue(tx.getInputs().isEmpty());
+        assertNotNull(responder.transaction(() ->
+                responder.getServices().getValidatedTransactions().getTransaction(tx.getId())));
+    }
+
+    private SignedTransaction endAuctionProposal(StateAndRef<NftState> nft) {
+        TransactionBuilder builder = new TransactionBuilder(nft.getState().getNotary())
+                .addInputState(nft)
+                .addOutputState(nft.getState().getData(), NftContract.ID)
+                .addCommand(new NftContract.Commands.EndAuction(),
+                        Arrays.asList(partyInitiator.getOwningKey(), partyResponder.getOwningKey()));
+        return initiator.transaction(() -> initiator.getServices().signInitialTransaction(builder));
+    }
+
+    private SignedTransaction mergeProposal(StateAndRef<AccountsFundsState> coin) {
+        TransactionBuilder builder = new TransactionBuilder(coin.getState().getNotary())
+                .addInputState(coin)
+                .addOutputState(coin.getState().getData(), AccountsFundsContract.ID)
+                .addCommand(new AccountsFundsContract.Commands.MergeFunds(),
+                        Arrays.asList(partyInitiator.getOwningKey(), partyResponder.getOwningKey()));
+        return initiator.transaction(() -> initiator.getServices().signInitialTransaction(builder));
+    }
+
+    /**
+     * Only the last states consumed since the node started are remembered, a restart is simulated by clearing them.
+     */
+    private void forgetConsumedStates(StartedMockNode node) throws Exception {
+        Field recentlyConsumed = UnconsumedStateIndex.class.getDeclaredField("recentlyConsumed");
+        recentlyConsumed.setAccessible(true);
+        ((Set<?>) recentlyConsumed.get(node.getServices().cordaService(UnconsumedStateIndex.class))).clear();
+    }
+
+    /**
+     * The index is seeded as soon as the node starts, so the lookups made before it are reached by resetting the flag.
+     */
+    private void unseed(StartedMockNode node) throws Exception {
+        Field seeded = UnconsumedStateIndex.class.getDeclaredField("seeded");
+        seeded.setAccessible(true);
+        seeded.set(node.getServices().cordaService(UnconsumedStateIndex.class), false);
+    }
+
+    /**
+     * The inputs are resolved from the transactions recorded by the responder, which needs a database transaction.
+     */
+    private void validateOnResponder(SignedTransaction proposal) throws FlowException {
+        FlowException refusal = responder.transaction(() -> {
+            try {
+                ProposalValidator.validate(responder.getServices(), proposal);
+                return null;
+            } catch (FlowException e) {
+                return e;
+            }
+        });
+        if (refusal != null) {
+            throw refusal;
+        }
+    }
+
+    private SignedTransaction run(FlowLogic<SignedTransaction> flow) throws Exception {
+        CordaFuture<SignedTransaction> future = initiator.startFlow(flow);
+        network.runNetwork();
+        return future.get();
+    }
+}
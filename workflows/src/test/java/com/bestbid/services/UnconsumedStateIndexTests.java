@@ -0,0 +1,146 @@
+package com.bestbid.services;
+
+import com.bestbid.contracts.NftContract;
+import com.bestbid.flows.AccountsFunds.AddFundsFlow;
+import com.bestbid.flows.MakeBidFlow;
+import com.bestbid.flows.Nft.IssueNftFlow;
+import com.bestbid.states.AccountsFundsState;
+import com.bestbid.states.AccountsFundsStateTxType;
+import com.bestbid.states.NftState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.StartedMockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static com.bestbid.flows.FlowHelpers.prepareMockNetworkParameters;
+import static org.junit.Assert.*;
+
+public class UnconsumedStateIndexTests {
+
+    private final MockNetwork network;
+    private final StartedMockNode initiator;
+    private final StartedMockNode responder;
+    private final Party partyResponder;
+
+    private final String accountAddress = "0x05DFG769DFG897SFD";
+    private final String nftId = "1";
+
+    public UnconsumedStateIndexTests() throws Exception {
+        this.network = new MockNetwork(prepareMockNetworkParameters());
+        this.initiator = network.createNode();
+        this.responder = network.createNode();
+        this.partyResponder = responder.getInfo().getLegalIdentities().get(0);
+    }
+
+    @Before
+    public void setup() {
+        initiator.startFlow(new AddFundsFlow.Initiator(AccountsFundsStateTxType.NEW_FUNDS, "1000", accountAddress,
+                partyResponder));
+        initiator.startFlow(new IssueNftFlow.Initiator("50", nftId, partyResponder));
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void whenStatesAreIssued_shouldIndexThemOnBothNodes() {
+        for (StartedMockNode node : ImmutableList.of(initiator, responder)) {
+            UnconsumedStateIndex index = node.getServices().cordaService(UnconsumedStateIndex.class);
+
+            assertTrue(index.findNft(nftId).isPresent());
+            assertTrue(index.findAccount(accountAddress).isPresent());
+        }
+    }
+
+    @Test
+    public void whenStatesAreConsumed_shouldIndexOnlyTheLatestOnes() throws Exception {
+        initiator.startFlow(new MakeBidFlow.Initiator("60", accountAddress, nftId, partyResponder));
+        network.runNetwork();
+
+        for (StartedMockNode node : ImmutableList.of(initiator, responder)) {
+            UnconsumedStateIndex index = node.getServices().cordaService(UnconsumedStateIndex.class);
+
+            StateAndRef<NftState> nft = index.findNft(nftId).orElseThrow(AssertionError::new);
+            assertEquals(1, nft.getState().getData().getBidNumber());
+            assertEquals(0, new BigDecimal("60").compareTo(nft.getState().getData().getCurrentBid()));
+
+            StateAndRef<AccountsFundsState> account = index.findAccount(accountAddress).orElseThrow(AssertionError::new);
+            assertEquals(0, new BigDecimal("940").compareTo(account.getState().getData().getFunds()));
+        }
+    }
+
+    @Test
+    public void whenNothingIsIssuedWithTheKey_shouldReturnEmpty() {
+        UnconsumedStateIndex index = initiator.getServices().cordaService(UnconsumedStateIndex.class);
+
+        assertFalse(index.findNft("100").isPresent());
+        assertFalse(index.findAccount("no address").isPresent());
+    }
+
+    @Test
+    public void givenTheIndexIsntSeeded_whenLookingUpStates_shouldFindThemByTheirColumns() throws Exception {
+        //arrange
+        UnconsumedStateIndex index = initiator.getServices().cordaService(UnconsumedStateIndex.class);
+        Field seeded = UnconsumedStateIndex.class.getDeclaredField("seeded");
+        seeded.setAccessible(true);
+        seeded.set(index, false);
+
+        //act
+        StateAndRef<NftState> nft = initiator.transaction(() -> index.findNft(nftId)).orElseThrow(AssertionError::new);
+        List<StateAndRef<AccountsFundsState>> coins = initiator.transaction(() ->
+                index.findAccountCoins(accountAddress.toUpperCase(Locale.ROOT)));
+
+        //assert
+        assertEquals(nftId, nft.getState().getData().getNftId());
+        assertEquals(1, coins.size());
+        assertEquals(0, new BigDecimal("1000").compareTo(coins.get(0).getState().getData().getFunds()));
+        assertEquals(1, initiator.transaction(() -> index.findExistingNftIds(Arrays.asList(nftId, "100"))).size());
+    }
+
+    @Test
+    public void whenTheRecordingOfATransactionIsRolledBack_shouldNotIndexIt() {
+        //arrange
+        Party me = initiator.getInfo().getLegalIdentities().get(0);
+        StateAndRef<NftState> nft = initiator.getServices().cordaService(UnconsumedStateIndex.class).findNft(nftId)
+                .orElseThrow(AssertionError::new);
+        NftState ended = new NftState(0, true, new BigDecimal("50"), BigDecimal.ZERO, "", nftId, me, partyResponder,
+                null, nft.getState().getData().getLinearId());
+        TransactionBuilder builder = new TransactionBuilder(nft.getState().getNotary())
+                .addInputState(nft)
+                .addOutputState(ended, NftContract.ID)
+                .addCommand(new NftContract.Commands.EndAuction(),
+                        Arrays.asList(me.getOwningKey(), partyResponder.getOwningKey()));
+        SignedTransaction stx = initiator.transaction(() -> initiator.getServices().signInitialTransaction(builder));
+
+        //act
+        try {
+            initiator.transaction(() -> {
+                initiator.getServices().recordTransactions(stx);
+                throw new IllegalStateException("Rolled back");
+            });
+            fail("The transaction should have been rolled back");
+        } catch (IllegalStateException e) {
+            assertEquals("Rolled back", e.getMessage());
+        }
+
+        //assert
+        UnconsumedStateIndex index = initiator.getServices().cordaService(UnconsumedStateIndex.class);
+        assertEquals(nft, index.findNft(nftId).orElseThrow(AssertionError::new));
+        assertFalse(index.isRecentlyConsumed(nft.getRef()));
+    }
+}